@@ -0,0 +1,394 @@
+/**
+ * Compact copy of a game's position for search and analysis.
+ * Holds one byte per square and applies the same rules as {@link GameLogic#move(Position, Position)},
+ * but every move can be taken back exactly with {@link #unmake()} and nothing is ever printed.
+ */
+public final class Board {
+    public static final int SQUARES = GameLogic.BOARD_SIZE * GameLogic.BOARD_SIZE;
+    public static final byte EMPTY = 0;
+    public static final byte ATTACKER = 1;
+    public static final byte DEFENDER = 2;
+    public static final byte KING = 3;
+
+    public static final int ONGOING = 0;
+    public static final int ATTACKER_WON = 1;
+    public static final int DEFENDER_WON = 2;
+
+    // Never the result of a board, which has no draw rules. Games stopped by GameLogic's draw rules or a ply limit end with it
+    public static final int DRAW = 3;
+
+    private static final int SIZE = GameLogic.BOARD_SIZE;
+    // Indexed by the PackedMove directions
+    private static final int[] DIR_X = {0, 0, 1, -1};
+    private static final int[] DIR_Y = {1, -1, 0, 0};
+
+    // Square offset of one step in each direction, and number of steps left before the edge
+    private static final int[] DIR_STEP = new int[4];
+    private static final byte[][] RAY_LENGTH = new byte[4][SQUARES];
+    private static final boolean[] CORNER = new boolean[SQUARES];
+
+    static {
+        for (int dir = 0; dir < 4; dir++) {
+            DIR_STEP[dir] = PackedMove.square(DIR_X[dir], DIR_Y[dir]);
+        }
+
+        for (int square = 0; square < SQUARES; square++) {
+            int x = PackedMove.x(square), y = PackedMove.y(square);
+            CORNER[square] = GameLogic.isCorner(x, y);
+            for (int dir = 0; dir < 4; dir++) {
+                int length = 0;
+                while (!notInBoard(x + (length + 1) * DIR_X[dir], y + (length + 1) * DIR_Y[dir])) {
+                    length++;
+                }
+                RAY_LENGTH[dir][square] = (byte) length;
+            }
+        }
+    }
+
+    // Flag of an undo record, above the packed move and its captures
+    private static final int TURN_SWITCHED = 1 << 20;
+    private static final int MAX_PLIES = 1024;
+
+    private final byte[] squares;
+    private boolean attackerTurn;
+    private int kingSquare, attackers, defenders, result;
+    private long hash;
+    private final MoveList history;
+
+    public Board(GameLogic game) {
+        this(game.snapshot());
+    }
+
+    public Board(GameSnapshot snapshot) {
+        this.squares = new byte[SQUARES];
+        this.history = new MoveList(MAX_PLIES);
+        this.kingSquare = -1;
+
+        for (int square = 0; square < SQUARES; square++) {
+            byte type = snapshot.pieceAt(square);
+            if (type == EMPTY) {
+                continue;
+            }
+
+            this.squares[square] = type;
+            this.hash ^= Zobrist.piece(type, square);
+            if (type == KING) {
+                this.kingSquare = square;
+            } else if (type == DEFENDER) {
+                this.defenders++;
+            } else {
+                this.attackers++;
+            }
+        }
+
+        this.attackerTurn = snapshot.isSecondPlayerTurn();
+        if (this.attackerTurn) {
+            this.hash ^= Zobrist.attackerTurn();
+        }
+        if (snapshot.isGameFinished() && !snapshot.isDraw()) {
+            // The game only ends through the king reaching a corner, the king being captured or all attackers dying
+            boolean defenderWon = this.attackers == 0 || CORNER[this.kingSquare];
+            this.result = defenderWon ? DEFENDER_WON : ATTACKER_WON;
+        }
+    }
+
+    public Board(Board other) {
+        this.squares = other.squares.clone();
+        this.history = new MoveList(MAX_PLIES);
+        this.history.copyFrom(other.history);
+        this.attackerTurn = other.attackerTurn;
+        this.kingSquare = other.kingSquare;
+        this.attackers = other.attackers;
+        this.defenders = other.defenders;
+        this.result = other.result;
+        this.hash = other.hash;
+    }
+
+    /**
+     * Overwrite this board with the position and history of another board, without allocating.
+     */
+    public void copyFrom(Board other) {
+        System.arraycopy(other.squares, 0, this.squares, 0, SQUARES);
+        this.history.copyFrom(other.history);
+        this.attackerTurn = other.attackerTurn;
+        this.kingSquare = other.kingSquare;
+        this.attackers = other.attackers;
+        this.defenders = other.defenders;
+        this.result = other.result;
+        this.hash = other.hash;
+    }
+
+    static byte pieceType(ConcretePiece piece) {
+        if (piece instanceof King) {
+            return KING;
+        }
+
+        return piece.getOwner().isPlayerOne() ? DEFENDER : ATTACKER;
+    }
+
+    private static boolean notInBoard(int x, int y) {
+        return x < 0 || y < 0 || x >= SIZE || y >= SIZE;
+    }
+
+    static boolean isCorner(int square) {
+        return CORNER[square];
+    }
+
+    private boolean isAttacker(int x, int y) {
+        return this.squares[PackedMove.square(x, y)] == ATTACKER;
+    }
+
+    public byte pieceAt(int square) {
+        return this.squares[square];
+    }
+
+    public boolean isAttackerTurn() {
+        return this.attackerTurn;
+    }
+
+    public int getKingSquare() {
+        return this.kingSquare;
+    }
+
+    public int getAttackers() {
+        return this.attackers;
+    }
+
+    public int getDefenders() {
+        return this.defenders;
+    }
+
+    public int getResult() {
+        return this.result;
+    }
+
+    public boolean isFinished() {
+        return this.result != ONGOING;
+    }
+
+    /**
+     * @return The {@link Zobrist} hash of the position and side to move, equal to {@link GameLogic#getHash()}.
+     */
+    public long getHash() {
+        return this.hash;
+    }
+
+    public int getPlies() {
+        return this.history.size();
+    }
+
+    /**
+     * @param ply Index of a move played on this board, 0 being the first.
+     * @return The move with its {@link PackedMove#captures(int) captures}.
+     */
+    public int getMove(int ply) {
+        return this.history.get(ply) & ~TURN_SWITCHED;
+    }
+
+    /**
+     * Same contract as {@link GameLogic#generateLegalMoves(int[])}.
+     */
+    public int generateMoves(int[] moves) {
+        if (this.result != ONGOING) {
+            return 0;
+        }
+
+        int count = 0;
+        for (int from = 0; from < SQUARES; from++) {
+            byte piece = this.squares[from];
+            if (piece == EMPTY || (piece == ATTACKER) != this.attackerTurn) {
+                continue;
+            }
+
+            for (int dir = 0; dir < 4; dir++) {
+                int step = DIR_STEP[dir], to = from;
+                for (int length = RAY_LENGTH[dir][from]; length > 0; length--) {
+                    to += step;
+                    if (this.squares[to] != EMPTY) {
+                        break;
+                    }
+
+                    // Only the king may land on a corner
+                    if (piece != KING && CORNER[to]) {
+                        continue;
+                    }
+
+                    moves[count++] = PackedMove.of(from, to);
+                }
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Check a single move against the rules without generating every move of the position.
+     *
+     * @return True if the move is one {@link #generateMoves(int[])} would produce.
+     */
+    public boolean isLegal(int move) {
+        move &= PackedMove.MOVE_MASK;
+        int from = PackedMove.from(move), to = PackedMove.to(move);
+        if (this.result != ONGOING || from >= SQUARES || to >= SQUARES || from == to) {
+            return false;
+        }
+
+        byte piece = this.squares[from];
+        if (piece == EMPTY || (piece == ATTACKER) != this.attackerTurn) {
+            return false;
+        }
+
+        // Only the king may land on a corner
+        if (piece != KING && CORNER[to]) {
+            return false;
+        }
+
+        int step;
+        if (PackedMove.x(from) == PackedMove.x(to)) {
+            step = to > from ? 1 : -1;
+        } else if (PackedMove.y(from) == PackedMove.y(to)) {
+            step = to > from ? SIZE : -SIZE;
+        } else {
+            return false;
+        }
+
+        // Path must be empty up to and including the destination
+        for (int square = from + step; square != to + step; square += step) {
+            if (this.squares[square] != EMPTY) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Play a move produced by {@link #generateMoves(int[])}.
+     */
+    public void make(int move) {
+        move &= PackedMove.MOVE_MASK;
+        int from = PackedMove.from(move), to = PackedMove.to(move);
+        byte piece = this.squares[from];
+        this.squares[from] = EMPTY;
+        this.squares[to] = piece;
+        this.hash ^= Zobrist.piece(piece, from) ^ Zobrist.piece(piece, to);
+
+        int x = PackedMove.x(to), y = PackedMove.y(to);
+        if (piece == KING) {
+            // The king cannot capture, it can only escape
+            this.kingSquare = to;
+            if (CORNER[to]) {
+                this.result = DEFENDER_WON;
+                this.history.add(move);
+                return;
+            }
+
+            this.history.add(move | TURN_SWITCHED);
+            this.switchTurn();
+            return;
+        }
+
+        int captures = 0;
+        boolean kingCaptured = false;
+        for (int dir = 0; dir < 4; dir++) {
+            int outcome = this.attack(piece, x, y, DIR_X[dir], DIR_Y[dir]);
+            if (outcome == KING) {
+                kingCaptured = true;
+            } else if (outcome != EMPTY) {
+                captures |= 1 << dir;
+            }
+        }
+
+        int record = PackedMove.withCaptures(move, captures);
+        if (kingCaptured) {
+            // Turn stays with the winner, same as GameLogic
+            this.result = ATTACKER_WON;
+        } else {
+            if (piece == DEFENDER && this.attackers == 0) {
+                this.result = DEFENDER_WON;
+            }
+
+            record |= TURN_SWITCHED;
+            this.switchTurn();
+        }
+        this.history.add(record);
+    }
+
+    private void switchTurn() {
+        this.attackerTurn = !this.attackerTurn;
+        this.hash ^= Zobrist.attackerTurn();
+    }
+
+    private byte attack(byte attacker, int x, int y, int dx, int dy) {
+        int nx = x + dx, ny = y + dy;
+        if (notInBoard(nx, ny)) {
+            return EMPTY;
+        }
+
+        // Check that the neighbor is an enemy
+        byte neighbor = this.squares[PackedMove.square(nx, ny)];
+        if (neighbor == EMPTY || (neighbor == ATTACKER) == (attacker == ATTACKER)) {
+            return EMPTY;
+        }
+
+        int bx = x + 2 * dx, by = y + 2 * dy;
+        if (neighbor == KING) {
+            // The king must be closed in by attackers or edges on the three remaining sides
+            boolean captured = (notInBoard(bx, by) || this.isAttacker(bx, by))
+                    && (notInBoard(nx + dy, ny + dx) || this.isAttacker(nx + dy, ny + dx))
+                    && (notInBoard(nx - dy, ny - dx) || this.isAttacker(nx - dy, ny - dx));
+            return captured ? KING : EMPTY;
+        }
+
+        // Pawns fall against a corner, an edge or a friendly pawn
+        if (notInBoard(bx, by) || CORNER[PackedMove.square(bx, by)] || this.squares[PackedMove.square(bx, by)] == attacker) {
+            this.squares[PackedMove.square(nx, ny)] = EMPTY;
+            this.hash ^= Zobrist.piece(neighbor, PackedMove.square(nx, ny));
+            if (neighbor == ATTACKER) {
+                this.attackers--;
+            } else {
+                this.defenders--;
+            }
+            return neighbor;
+        }
+
+        return EMPTY;
+    }
+
+    /**
+     * Take back the last move played with {@link #make(int)}.
+     */
+    public void unmake() {
+        int record = this.history.removeLast();
+        int from = PackedMove.from(record), to = PackedMove.to(record);
+        byte piece = this.squares[to];
+
+        this.result = ONGOING;
+        if ((record & TURN_SWITCHED) != 0) {
+            this.switchTurn();
+        }
+
+        this.squares[to] = EMPTY;
+        this.squares[from] = piece;
+        this.hash ^= Zobrist.piece(piece, from) ^ Zobrist.piece(piece, to);
+        if (piece == KING) {
+            this.kingSquare = from;
+            return;
+        }
+
+        // Put back the pawns captured by the move
+        byte victim = piece == ATTACKER ? DEFENDER : ATTACKER;
+        for (int dir = 0; dir < 4; dir++) {
+            if (PackedMove.captured(record, dir)) {
+                int square = PackedMove.square(PackedMove.x(to) + DIR_X[dir], PackedMove.y(to) + DIR_Y[dir]);
+                this.squares[square] = victim;
+                this.hash ^= Zobrist.piece(victim, square);
+                if (victim == ATTACKER) {
+                    this.attackers++;
+                } else {
+                    this.defenders++;
+                }
+            }
+        }
+    }
+}
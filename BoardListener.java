@@ -0,0 +1,39 @@
+/**
+ * Receives every change to a {@link GameLogic} as it happens, so a view only has to redraw the squares that changed.
+ * A move reports the moved piece, then its captures, then the end of the game and the turn change when they happen.
+ * Every method does nothing by default.
+ */
+public interface BoardListener {
+
+    /**
+     * A piece moved, by a move, an undo or a redo.
+     */
+    default void pieceMoved(ConcretePiece piece, Position from, Position to) {}
+
+    /**
+     * A piece was captured and left the board. A captured king stays on the board and ends the game instead.
+     */
+    default void pieceCaptured(ConcretePiece piece, Position position) {}
+
+    /**
+     * A captured piece came back by undoing the move that captured it.
+     */
+    default void pieceRestored(ConcretePiece piece, Position position) {}
+
+    default void turnChanged(boolean secondPlayerTurn) {}
+
+    /**
+     * @param winner The winning player, or null for a draw.
+     */
+    default void gameFinished(Player winner) {}
+
+    /**
+     * The move that finished the game was undone.
+     */
+    default void gameResumed() {}
+
+    /**
+     * Every piece is back on its starting square, the whole board has to be redrawn.
+     */
+    default void boardReset() {}
+}
@@ -1,3 +1,4 @@
+import java.util.Arrays;
 import java.util.Stack;
 
 public abstract class ConcretePiece implements Piece, Comparable<ConcretePiece> {
@@ -7,17 +8,22 @@ public abstract class ConcretePiece implements Piece, Comparable<ConcretePiece>
     private int kills;
     private final Stack<Position> positionHistory;
 
+    // Running totals over the position history, kept in step by pushPosition() and popPosition()
+    private int distance, uniqueSquares;
+    private final int[] visitsPerSquare;
+
     public ConcretePiece(Position initialPosition, ConcretePlayer owner, int id) {
         this.position = initialPosition;
         this.owner = owner;
         this.id = id;
         this.positionHistory = new Stack<>();
+        this.visitsPerSquare = new int[Board.SQUARES];
 
         this.reset();
     }
 
     public ConcretePiece(int initialX, int initialY, ConcretePlayer owner, int id) {
-        this(new Position(initialX, initialY), owner, id);
+        this(Position.of(initialX, initialY), owner, id);
     }
 
     @Override
@@ -47,26 +53,56 @@ public abstract class ConcretePiece implements Piece, Comparable<ConcretePiece>
     public int getKills() {
         return kills;
     }
-    public void pushPosition(Position newPosition) {
+    /**
+     * @return true if this is the piece's first visit to the square.
+     */
+    public boolean pushPosition(Position newPosition) {
+        if (!this.positionHistory.isEmpty()) {
+            this.distance += this.positionHistory.peek().distance(newPosition);
+        }
         this.positionHistory.push(newPosition);
+
+        boolean firstVisit = this.visitsPerSquare[PackedMove.square(newPosition)]++ == 0;
+        if (firstVisit) {
+            this.uniqueSquares++;
+        }
+        return firstVisit;
     }
-    public void popPosition() {
-        this.positionHistory.pop();
-    }
-    public int distanceTravelled() {
-        if (this.positionHistory.size() <= 1) {
-            return 0;
+
+    /**
+     * @return true if the piece no longer has any visit to the square it leaves.
+     */
+    public boolean popPosition() {
+        Position oldPosition = this.positionHistory.pop();
+        if (!this.positionHistory.isEmpty()) {
+            this.distance -= this.positionHistory.peek().distance(oldPosition);
         }
 
-        int distance = 0;
-        for (int i = 0; i < this.positionHistory.size() - 1; i++) {
-            distance += this.positionHistory.get(i).distance(this.positionHistory.get(i + 1));
+        boolean lastVisit = --this.visitsPerSquare[PackedMove.square(oldPosition)] == 0;
+        if (lastVisit) {
+            this.uniqueSquares--;
         }
+        return lastVisit;
+    }
+    public int distanceTravelled() {
+        return this.distance;
+    }
 
-        return distance;
+    /**
+     * @return Number of different squares this piece has stood on, including its starting square.
+     */
+    public int getUniqueSquares() {
+        return this.uniqueSquares;
+    }
+    public boolean hasVisited(Position square) {
+        return this.visitsPerSquare[PackedMove.square(square)] > 0;
     }
+
     public void reset() {
         this.kills = 0;
+        this.distance = 0;
+        this.uniqueSquares = 0;
+        Arrays.fill(this.visitsPerSquare, 0);
         this.positionHistory.clear();
         this.pushPosition(this.position);
     }
@@ -18,4 +18,8 @@ public class ConcretePlayer implements Player {
     public void win() {
         this.wins++;
     }
+
+    public void undoWin() {
+        this.wins--;
+    }
 }
@@ -0,0 +1,11 @@
+/**
+ * Prints game reports to {@link System#out}, the default for {@link GameLogic}.
+ */
+public class ConsoleReportSink extends TextReportSink {
+
+    @Override
+    protected void write(CharSequence report) {
+        // Looked up on every report so redirecting System.out keeps working
+        System.out.print(report);
+    }
+}
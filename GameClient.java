@@ -0,0 +1,227 @@
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Plays games on a {@link GameServer}. Not thread safe, one client per thread or per game.
+ * The plain methods send a request and wait for its answer. To pipeline, queue any number of move batches with
+ * {@link #sendMoves(int[], int, int)}, then read their answers in the same order with {@link #receiveMoves(boolean[], int)}.
+ * Requests are only sent once an answer is needed or {@link #flush()} is called.
+ * The server stops reading from a client whose answers pile up, so read answers before queueing hundreds of kilobytes more.
+ */
+public class GameClient implements AutoCloseable {
+    private final SocketChannel channel;
+    private final ByteBuffer in, out;
+
+    // Where the frame being written starts in the output buffer
+    private int frame;
+
+    public GameClient(InetSocketAddress address) throws IOException {
+        this.channel = SocketChannel.open(address);
+        this.channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        this.in = ByteBuffer.allocate(4096);
+        this.in.flip();
+        this.out = ByteBuffer.allocate(4096);
+    }
+
+    /**
+     * Start a new game on the server and play it from now on.
+     *
+     * @return The id of the game, for other clients to {@link #join(long)}.
+     */
+    public long create() throws IOException {
+        this.begin(GameProtocol.CREATE);
+        this.end();
+
+        return this.receive(GameProtocol.CREATE).getLong();
+    }
+
+    /**
+     * Play an existing game from now on.
+     */
+    public void join(long game) throws IOException {
+        this.reserve(Long.BYTES);
+        this.begin(GameProtocol.JOIN);
+        this.out.putLong(game);
+        this.end();
+        this.receive(GameProtocol.JOIN);
+    }
+
+    /**
+     * @see GameLogic#move(Position, Position)
+     */
+    public boolean move(Position a, Position b) throws IOException {
+        // A square off the board would be sent as some other square
+        if (notInBoard(a) || notInBoard(b)) {
+            return false;
+        }
+
+        this.reserve(2);
+        this.begin(GameProtocol.MOVES);
+        this.out.put((byte) PackedMove.square(a));
+        this.out.put((byte) PackedMove.square(b));
+        this.end();
+
+        return this.receive(GameProtocol.MOVES).get() != 0;
+    }
+
+    /**
+     * Queue a batch of moves, played by the server one after the other whether or not the previous ones were legal.
+     *
+     * @param moves {@link PackedMove} moves, captures and flags are ignored.
+     * @param count At most {@link GameProtocol#MAX_BATCH} moves.
+     */
+    public void sendMoves(int[] moves, int offset, int count) throws IOException {
+        if (count < 0 || count > GameProtocol.MAX_BATCH) {
+            throw new IllegalArgumentException("Batch of " + count + " moves");
+        }
+
+        this.reserve(2 * count);
+        this.begin(GameProtocol.MOVES);
+        for (int i = offset; i < offset + count; i++) {
+            this.out.put((byte) PackedMove.from(moves[i]));
+            this.out.put((byte) PackedMove.to(moves[i]));
+        }
+        this.end();
+    }
+
+    /**
+     * Wait for the answer to the oldest batch queued with {@link #sendMoves(int[], int, int)}.
+     *
+     * @param played Set for each move of the batch, from the offset on, to whether it was played.
+     * @return The number of moves in the batch.
+     */
+    public int receiveMoves(boolean[] played, int offset) throws IOException {
+        ByteBuffer answer = this.receive(GameProtocol.MOVES);
+        int count = answer.remaining();
+        for (int i = 0; i < count; i++) {
+            played[offset + i] = answer.get() != 0;
+        }
+
+        return count;
+    }
+
+    public void undoLastMove() throws IOException {
+        this.request(GameProtocol.UNDO);
+    }
+
+    public void reset() throws IOException {
+        this.request(GameProtocol.RESET);
+    }
+
+    /**
+     * @return The current position of the game, the hash being the one of the server's game.
+     */
+    public GameSnapshot state() throws IOException {
+        ByteBuffer answer = this.request(GameProtocol.STATE);
+        byte[] squares = new byte[Board.SQUARES];
+        answer.get(squares);
+        int flags = answer.get();
+        int ply = answer.getInt();
+
+        return new GameSnapshot(squares, (flags & GameProtocol.SECOND_PLAYER_TURN) != 0, (flags & GameProtocol.FINISHED) != 0,
+                (flags & GameProtocol.DRAW) != 0, ply, answer.getLong());
+    }
+
+    /**
+     * @param wins Receives the wins of the first player, then of the second player.
+     */
+    public void getWins(int[] wins) throws IOException {
+        ByteBuffer answer = this.request(GameProtocol.WINS);
+        wins[0] = answer.getInt();
+        wins[1] = answer.getInt();
+    }
+
+    /**
+     * Send every queued request.
+     */
+    public void flush() throws IOException {
+        this.out.flip();
+        while (this.out.hasRemaining()) {
+            this.channel.write(this.out);
+        }
+        this.out.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+
+    private static boolean notInBoard(Position position) {
+        return position == null || position.x() < 0 || position.y() < 0 || position.x() >= GameLogic.BOARD_SIZE || position.y() >= GameLogic.BOARD_SIZE;
+    }
+
+    private ByteBuffer request(byte type) throws IOException {
+        this.begin(type);
+        this.end();
+
+        return this.receive(type);
+    }
+
+    // Frames are written with a placeholder length, filled in by end()
+    private void begin(byte type) throws IOException {
+        this.reserve(0);
+        this.frame = this.out.position();
+        this.out.putShort((short) 0);
+        this.out.put(type);
+    }
+
+    private void end() {
+        this.out.putShort(this.frame, (short) (this.out.position() - this.frame - GameProtocol.HEADER_BYTES));
+    }
+
+    private void reserve(int payload) throws IOException {
+        if (this.out.remaining() < GameProtocol.HEADER_BYTES + 1 + payload) {
+            this.flush();
+        }
+    }
+
+    /**
+     * Send the queued requests and wait for the next answer.
+     *
+     * @return The payload of the answer, valid until the next call.
+     * @throws IOException If the answer is an error or not of the expected type.
+     */
+    private ByteBuffer receive(byte type) throws IOException {
+        this.flush();
+
+        int length = this.fill(GameProtocol.HEADER_BYTES) & 0xFFFF;
+        this.fill(GameProtocol.HEADER_BYTES + length);
+        this.in.position(this.in.position() + GameProtocol.HEADER_BYTES);
+        ByteBuffer answer = this.in.slice(this.in.position() + 1, length - 1);
+        byte answered = this.in.get();
+        this.in.position(this.in.position() + length - 1);
+
+        if (answered == GameProtocol.ERROR) {
+            throw new IOException(answer.get() == GameProtocol.NO_GAME ? "No game joined, or it expired" : "Server error");
+        }
+        if (answered != type) {
+            throw new IOException("Expected an answer of type " + type + ", got " + answered);
+        }
+
+        return answer;
+    }
+
+    /**
+     * Read until at least the given number of bytes are buffered.
+     *
+     * @return The first 2 bytes buffered as a short.
+     */
+    private short fill(int bytes) throws IOException {
+        if (this.in.remaining() < bytes) {
+            this.in.compact();
+            while (this.in.position() < bytes) {
+                if (this.channel.read(this.in) < 0) {
+                    throw new EOFException("Server closed the connection");
+                }
+            }
+            this.in.flip();
+        }
+
+        return this.in.getShort(this.in.position());
+    }
+}
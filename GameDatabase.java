@@ -0,0 +1,382 @@
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Store of games on memory-mapped files, indexed by every position the games reached.
+ * Games are kept in the {@link GameRecordWriter} record format in the data file. Next to it are two more files:
+ * <ul>
+ *     <li>the index, with an ".idx" suffix: a header with the table capacity and the committed sizes, then an open
+ *     addressing table from {@link Zobrist} position hash to the newest posting of that position</li>
+ *     <li>the postings, with a ".postings" suffix: 16 bytes each, the game offset with its result in the top 2 bits,
+ *     and the next older posting</li>
+ * </ul>
+ * When the table is 3/4 full it is rehashed in place into twice the capacity, so the index only ever holds one table.
+ * The starting position is not indexed, since every game reaches it.
+ * One thread appends at a time, any number of threads may look up concurrently, including while a game is appended.
+ * Files are mapped in large chunks and never cut down while mapped, so they are padded past the committed sizes kept in the
+ * index header. {@link #export(Path)} copies the games out as a plain {@link GameRecordReader} archive.
+ */
+public class GameDatabase implements AutoCloseable {
+    public static final long DEFAULT_CAPACITY = 1L << 16;
+
+    private static final long INDEX_MAGIC = 0x5441464C49445833L; // "TAFLIDX3"
+    private static final int CHUNK_SHIFT = 26;
+
+    // Index header fields, then the table
+    private static final long LOG_CAPACITY = 8;
+    private static final long DATA_END = 16;
+    private static final long POSTINGS_END = 24;
+    private static final long GAMES = 32;
+    private static final long POSITIONS = 40;
+    private static final long TABLE = 64;
+    private static final int ENTRY_BYTES = 16;
+
+    private static final int RESULT_SHIFT = 62;
+    private static final long OFFSET_MASK = (1L << RESULT_SHIFT) - 1;
+
+    private final MappedFile data, index, postings;
+    private final Board start, board;
+    private long[] hashes;
+
+    // Held for writing while the table is rehashed. Lookups read optimistically and only wait if a rehash overlapped them
+    private final StampedLock table;
+
+    /**
+     * Open a database, creating it with {@link #DEFAULT_CAPACITY} distinct positions if it does not exist.
+     */
+    public GameDatabase(Path path) throws IOException {
+        this(path, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity Distinct positions the index holds before it first grows, if it is created.
+     *                 Rounded up to a power of two.
+     */
+    public GameDatabase(Path path, long capacity) throws IOException {
+        this.data = new MappedFile(path, CHUNK_SHIFT);
+        this.index = new MappedFile(path.resolveSibling(path.getFileName() + ".idx"), CHUNK_SHIFT);
+        this.postings = new MappedFile(path.resolveSibling(path.getFileName() + ".postings"), CHUNK_SHIFT);
+        this.start = new Board(new GameLogic());
+        this.board = new Board(this.start);
+        this.hashes = new long[256];
+        this.table = new StampedLock();
+
+        if (this.index.size() == 0) {
+            long tableCapacity = Math.max(1024, Long.highestOneBit(capacity - 1) << 1);
+
+            // Data file starts with an archive header
+            this.data.putByte(0, (byte) (GameRecordWriter.MAGIC >>> 24));
+            this.data.putByte(1, (byte) (GameRecordWriter.MAGIC >>> 16));
+            this.data.putByte(2, (byte) (GameRecordWriter.MAGIC >>> 8));
+            this.data.putByte(3, (byte) GameRecordWriter.MAGIC);
+            this.data.putByte(4, (byte) GameRecordWriter.VERSION);
+
+            // Posting 0 stands for the end of a chain, so the first real one comes after it
+            this.index.putLong(LOG_CAPACITY, Long.numberOfTrailingZeros(tableCapacity));
+            this.index.putLong(DATA_END, 5);
+            this.index.putLong(POSTINGS_END, ENTRY_BYTES);
+            this.index.putLongRelease(0, INDEX_MAGIC);
+        } else {
+            if (this.index.getLongAcquire(0) != INDEX_MAGIC) {
+                throw new IOException("Not a game database index: " + path);
+            }
+        }
+    }
+
+    /**
+     * Store a game and index every position it reached.
+     *
+     * @param moves Packed moves from the starting position, captures and flags are ignored.
+     * @return The offset of the game, as returned by {@link #find(long)}.
+     * @throws IllegalArgumentException If the moves do not follow the rules or do not lead to the result.
+     */
+    public synchronized long append(int result, MoveList moves) {
+        // Replay before writing anything, so a bad game leaves the database untouched
+        if (this.hashes.length < moves.size()) {
+            this.hashes = new long[Math.max(moves.size(), this.hashes.length * 2)];
+        }
+        this.board.copyFrom(this.start);
+        for (int ply = 0; ply < moves.size(); ply++) {
+            int move = moves.get(ply) & PackedMove.MOVE_MASK;
+            if (!this.board.isLegal(move)) {
+                throw new IllegalArgumentException("Illegal move " + PackedMove.toString(move) + " at ply " + ply);
+            }
+            this.board.make(move);
+            this.hashes[ply] = this.board.getHash();
+        }
+        if (this.board.getResult() != GameRecordWriter.boardResult(result)) {
+            throw new IllegalArgumentException("Game ends with result " + this.board.getResult() + ", not " + result);
+        }
+
+        // Each position is indexed once per game, however often it was repeated
+        Arrays.sort(this.hashes, 0, moves.size());
+        int distinct = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            if (i == 0 || this.hashes[i] != this.hashes[i - 1]) {
+                this.hashes[distinct++] = this.hashes[i];
+            }
+        }
+        long positions = this.index.getLong(POSITIONS);
+        long capacity = this.capacity();
+        if (positions + distinct > capacity - (capacity >>> 2)) {
+            capacity = this.grow(positions + distinct);
+        }
+
+        long game = this.index.getLong(DATA_END);
+        this.data.putByte(game, (byte) result);
+        for (int shift = 24, offset = 1; shift >= 0; shift -= 8, offset++) {
+            this.data.putByte(game + offset, (byte) (moves.size() >>> shift));
+        }
+        long end = game + GameRecordWriter.HEADER_BYTES;
+        for (int ply = 0; ply < moves.size(); ply++) {
+            this.data.putByte(end++, (byte) PackedMove.from(moves.get(ply)));
+            this.data.putByte(end++, (byte) PackedMove.to(moves.get(ply)));
+        }
+
+        long posting = this.index.getLong(POSTINGS_END);
+        for (int i = 0; i < distinct; i++) {
+            long slot = this.slot(capacity, this.hashes[i]);
+            long head = this.index.getLong(slot + 8);
+            if (head == 0) {
+                positions++;
+                this.index.putLong(slot, this.hashes[i]);
+            }
+
+            // Publish the posting only once it is complete, readers follow the chain without locking
+            this.postings.putLong(posting, game | (long) result << RESULT_SHIFT);
+            this.postings.putLong(posting + 8, head);
+            this.index.putLongRelease(slot + 8, posting);
+            posting += ENTRY_BYTES;
+        }
+
+        this.index.putLong(POSITIONS, positions);
+        this.index.putLong(GAMES, this.index.getLong(GAMES) + 1);
+        this.index.putLong(POSTINGS_END, posting);
+        this.index.putLongRelease(DATA_END, end);
+
+        return game;
+    }
+
+    /**
+     * Rehash the table in place, into a capacity large enough to stay under 3/4 full with this many positions.
+     * Postings never move, so only lookups running at the same time have to retry.
+     *
+     * @return The new capacity.
+     */
+    private long grow(long positions) {
+        long old = this.capacity(), capacity = old;
+        while (positions > capacity - (capacity >>> 2)) {
+            capacity *= 2;
+        }
+
+        long stamp = this.table.writeLock();
+        try {
+            // Take the entries out, then clear the old table, which is the start of the new one
+            long[] entries = new long[2 * (int) this.index.getLong(POSITIONS)];
+            int count = 0;
+            for (long slot = TABLE; slot < TABLE + old * ENTRY_BYTES; slot += ENTRY_BYTES) {
+                long head = this.index.getLong(slot + 8);
+                if (head != 0) {
+                    entries[count++] = this.index.getLong(slot);
+                    entries[count++] = head;
+                    this.index.putLong(slot, 0);
+                    this.index.putLong(slot + 8, 0);
+                }
+            }
+
+            for (int i = 0; i < count; i += 2) {
+                long slot = this.slot(capacity, entries[i]);
+                this.index.putLong(slot, entries[i]);
+                this.index.putLong(slot + 8, entries[i + 1]);
+            }
+            this.index.putLongRelease(LOG_CAPACITY, Long.numberOfTrailingZeros(capacity));
+        } finally {
+            this.table.unlockWrite(stamp);
+        }
+
+        return capacity;
+    }
+
+    private long capacity() {
+        return 1L << this.index.getLongAcquire(LOG_CAPACITY);
+    }
+
+    /**
+     * @return The entry of the table holding the hash, or the empty entry where it would go.
+     */
+    private long slot(long capacity, long hash) {
+        long mask = capacity - 1;
+        for (long i = hash & mask; ; i = (i + 1) & mask) {
+            long slot = TABLE + i * ENTRY_BYTES;
+            if (this.index.getLongAcquire(slot + 8) == 0 || this.index.getLong(slot) == hash) {
+                return slot;
+            }
+        }
+    }
+
+    /**
+     * @return The newest posting of the position, 0 if no stored game reached it.
+     */
+    private long head(long hash) {
+        long stamp = this.table.tryOptimisticRead();
+        long head = this.probe(hash);
+        if (this.table.validate(stamp)) {
+            return head;
+        }
+
+        // A rehash ran meanwhile, wait for it and look again
+        stamp = this.table.readLock();
+        try {
+            return this.probe(hash);
+        } finally {
+            this.table.unlockRead(stamp);
+        }
+    }
+
+    // Like slot(), but gives up after one pass over the table, which a rehash under way could leave without an empty entry
+    private long probe(long hash) {
+        long capacity = this.capacity(), mask = capacity - 1;
+        long i = hash & mask;
+        for (long probes = 0; probes < capacity; probes++, i = (i + 1) & mask) {
+            long slot = TABLE + i * ENTRY_BYTES;
+            long head = this.index.getLongAcquire(slot + 8);
+            if (head == 0) {
+                return 0;
+            }
+            if (this.index.getLong(slot) == hash) {
+                return head;
+            }
+        }
+
+        return 0;
+    }
+
+    /**
+     * @return Offsets of the stored games that reached the position, newest first.
+     */
+    public long[] find(long hash) {
+        long head = this.head(hash);
+
+        int count = 0;
+        for (long posting = head; posting != 0; posting = this.postings.getLong(posting + 8)) {
+            count++;
+        }
+
+        long[] games = new long[count];
+        for (long posting = head; count > 0; posting = this.postings.getLong(posting + 8)) {
+            games[games.length - count--] = this.postings.getLong(posting) & OFFSET_MASK;
+        }
+
+        return games;
+    }
+
+    /**
+     * Count how the stored games that reached the position ended, without touching the games themselves.
+     *
+     * @param totals Incremented at {@link Board#ONGOING}, {@link Board#ATTACKER_WON}, {@link Board#DEFENDER_WON} and {@link Board#DRAW}.
+     * @return The number of games found.
+     */
+    public long countResults(long hash, long[] totals) {
+        long count = 0;
+        for (long posting = this.head(hash); posting != 0; posting = this.postings.getLong(posting + 8)) {
+            totals[(int) (this.postings.getLong(posting) >>> RESULT_SHIFT)]++;
+            count++;
+        }
+
+        return count;
+    }
+
+    public int getResult(long game) {
+        return this.data.getByte(game);
+    }
+
+    public int getPlies(long game) {
+        int plies = 0;
+        for (int offset = 1; offset < GameRecordWriter.HEADER_BYTES; offset++) {
+            plies = plies << 8 | (this.data.getByte(game + offset) & 0xFF);
+        }
+
+        return plies;
+    }
+
+    /**
+     * @return The ply of a stored game as a {@link PackedMove}, without captures.
+     */
+    public int getMove(long game, int ply) {
+        long offset = game + GameRecordWriter.HEADER_BYTES + 2L * ply;
+        return PackedMove.of(this.data.getByte(offset) & 0xFF, this.data.getByte(offset + 1) & 0xFF);
+    }
+
+    public long getGames() {
+        return this.index.getLong(GAMES);
+    }
+
+    public long getPositions() {
+        return this.index.getLong(POSITIONS);
+    }
+
+    /**
+     * Write everything appended so far to the storage device.
+     */
+    public synchronized void force() {
+        this.data.force();
+        this.postings.force();
+        this.index.force();
+    }
+
+    /**
+     * Copy the stored games to a plain archive, readable with {@link GameRecordReader}.
+     */
+    public synchronized void export(Path archive) throws IOException {
+        try (FileChannel out = FileChannel.open(archive, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            this.data.transferTo(this.index.getLong(DATA_END), out);
+        }
+    }
+
+    /**
+     * Write everything to the storage device and close the files. The sizes in the index header tell how much of them is used.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        this.force();
+        this.data.close();
+        this.postings.close();
+        this.index.close();
+    }
+
+    /**
+     * Usage: GameDatabase database archive..., appends every game of the archives written by {@link GameRecordWriter}.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: GameDatabase database archive...");
+            System.exit(1);
+        }
+
+        long start = System.nanoTime();
+        try (GameDatabase database = new GameDatabase(Path.of(args[0]))) {
+            MoveList moves = new MoveList();
+            for (int i = 1; i < args.length; i++) {
+                try (GameRecordReader reader = new GameRecordReader(new FileInputStream(args[i]))) {
+                    while (reader.next()) {
+                        moves.clear();
+                        for (int ply = 0; ply < reader.getPlies(); ply++) {
+                            moves.add(reader.getMove(ply));
+                        }
+                        database.append(reader.getResult(), moves);
+                    }
+                }
+            }
+            database.force();
+
+            System.out.printf("Games:     %,d%n", database.getGames());
+            System.out.printf("Positions: %,d%n", database.getPositions());
+            System.out.printf("Elapsed:   %,d ms%n", (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+}
@@ -0,0 +1,245 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameDatabaseTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void findsEveryPositionOfEveryGame() throws IOException {
+        Random random = new Random(1);
+        Expected expected = new Expected();
+        try (GameDatabase database = new GameDatabase(this.directory.resolve("games"))) {
+            for (int i = 0; i < 50; i++) {
+                expected.append(database, randomGame(random));
+            }
+            expected.check(database);
+        }
+    }
+
+    @Test
+    void growsAndReopens() throws IOException {
+        Path path = this.directory.resolve("games");
+        Random random = new Random(2);
+        Expected expected = new Expected();
+
+        // The smallest table, grown several times over
+        try (GameDatabase database = new GameDatabase(path, 1)) {
+            while (database.getPositions() < 20_000) {
+                expected.append(database, randomGame(random));
+            }
+            expected.check(database);
+        }
+
+        // Reopened, the database holds the same games and keeps growing
+        try (GameDatabase database = new GameDatabase(path)) {
+            expected.check(database);
+            for (int i = 0; i < 100; i++) {
+                expected.append(database, randomGame(random));
+            }
+            expected.check(database);
+        }
+        try (GameDatabase database = new GameDatabase(path)) {
+            expected.check(database);
+        }
+    }
+
+    @Test
+    void lookupsRunWhileTheTableGrows() throws Exception {
+        Random random = new Random(3);
+        try (GameDatabase database = new GameDatabase(this.directory.resolve("games"), 1)) {
+            MoveList first = randomGame(random);
+            long game = database.append(resultOf(first), first);
+            long hash = positionHashes(first).get(0);
+
+            // A reader looking up the first game's position never misses it, whatever rehash it runs into
+            AtomicBoolean done = new AtomicBoolean();
+            AtomicReference<String> failure = new AtomicReference<>();
+            Thread reader = new Thread(() -> {
+                long[] totals = new long[Board.DRAW + 1];
+                while (!done.get() && failure.get() == null) {
+                    long[] games = database.find(hash);
+                    if (games.length == 0 || games[games.length - 1] != game || database.countResults(hash, totals) == 0) {
+                        failure.set("Lost the first game after " + database.getGames() + " games");
+                    }
+                }
+            });
+            reader.start();
+            while (database.getPositions() < 20_000 && failure.get() == null) {
+                MoveList moves = randomGame(random);
+                database.append(resultOf(moves), moves);
+            }
+            done.set(true);
+            reader.join();
+
+            assertNull(failure.get());
+        }
+    }
+
+    @Test
+    void rejectsBadGamesWithoutWriting() throws IOException {
+        try (GameDatabase database = new GameDatabase(this.directory.resolve("games"))) {
+            MoveList illegal = new MoveList();
+            illegal.add(PackedMove.of(PackedMove.square(3, 0), PackedMove.square(4, 1)));
+            assertThrows(IllegalArgumentException.class, () -> database.append(Board.ONGOING, illegal));
+
+            MoveList unfinished = new MoveList();
+            unfinished.add(PackedMove.of(PackedMove.square(3, 0), PackedMove.square(3, 1)));
+            assertThrows(IllegalArgumentException.class, () -> database.append(Board.ATTACKER_WON, unfinished));
+
+            assertEquals(0, database.getGames());
+            assertEquals(0, database.getPositions());
+            assertEquals(0, database.find(positionHashes(unfinished).get(0)).length);
+        }
+    }
+
+    @Test
+    void exportsAPlainArchive() throws IOException {
+        Random random = new Random(4);
+        List<MoveList> games = new ArrayList<>();
+        Path archive = this.directory.resolve("archive");
+        try (GameDatabase database = new GameDatabase(this.directory.resolve("games"))) {
+            for (int i = 0; i < 20; i++) {
+                games.add(randomGame(random));
+                database.append(resultOf(games.get(i)), games.get(i));
+            }
+            database.export(archive);
+        }
+
+        try (GameRecordReader reader = new GameRecordReader(Files.newInputStream(archive))) {
+            for (MoveList game : games) {
+                assertTrue(reader.next());
+                assertArrayEquals(game.toArray(), moves(reader));
+                assertEquals(resultOf(game), reader.replay().getResult());
+            }
+            assertFalse(reader.next());
+        }
+    }
+
+    @Test
+    void storesDraws() throws IOException {
+        Path archive = this.directory.resolve("archive");
+        MoveList drawn = TestGames.playRandomMoves(new Board(new GameLogic()), new Random(8), 20);
+        try (GameDatabase database = new GameDatabase(this.directory.resolve("games"))) {
+            long game = database.append(Board.DRAW, drawn);
+            assertEquals(Board.DRAW, database.getResult(game));
+            long[] totals = new long[Board.DRAW + 1];
+            assertEquals(1, database.countResults(positionHashes(drawn).get(drawn.size() - 1), totals));
+            assertArrayEquals(new long[] {0, 0, 0, 1}, totals);
+
+            // A game the rules ended was not drawn
+            MoveList finished = TestGames.playRandomMoves(new Board(new GameLogic()), new Random(8), Integer.MAX_VALUE);
+            assertThrows(IllegalArgumentException.class, () -> database.append(Board.DRAW, finished));
+            database.export(archive);
+        }
+
+        try (GameRecordReader reader = new GameRecordReader(Files.newInputStream(archive))) {
+            assertTrue(reader.next());
+            assertEquals(Board.DRAW, reader.getResult());
+            assertArrayEquals(drawn.toArray(), moves(reader));
+            assertEquals(Board.ONGOING, reader.replay().getResult());
+            assertFalse(reader.next());
+        }
+    }
+
+    // Offsets of the games reaching each position, kept the simple way
+    private static final class Expected {
+        private final Map<Long, List<Long>> games = new HashMap<>();
+        private final Map<Long, MoveList> moves = new HashMap<>();
+        private final Map<Long, Integer> results = new HashMap<>();
+
+        void append(GameDatabase database, MoveList game) {
+            long offset = database.append(resultOf(game), game);
+            this.moves.put(offset, game);
+            this.results.put(offset, resultOf(game));
+            for (long hash : new LinkedHashSet<>(positionHashes(game))) {
+                this.games.computeIfAbsent(hash, k -> new ArrayList<>()).add(0, offset);
+            }
+        }
+
+        void check(GameDatabase database) {
+            assertEquals(this.moves.size(), database.getGames());
+            assertEquals(this.games.size(), database.getPositions());
+
+            for (Map.Entry<Long, List<Long>> entry : this.games.entrySet()) {
+                long[] found = database.find(entry.getKey());
+                assertEquals(entry.getValue(), toList(found));
+
+                long[] totals = new long[Board.DRAW + 1], expected = new long[Board.DRAW + 1];
+                for (long game : found) {
+                    expected[this.results.get(game)]++;
+                }
+                assertEquals(found.length, database.countResults(entry.getKey(), totals));
+                assertArrayEquals(expected, totals);
+            }
+
+            for (Map.Entry<Long, MoveList> entry : this.moves.entrySet()) {
+                long game = entry.getKey();
+                assertEquals(this.results.get(game), database.getResult(game));
+                assertEquals(entry.getValue().size(), database.getPlies(game));
+                for (int ply = 0; ply < entry.getValue().size(); ply++) {
+                    assertEquals(entry.getValue().get(ply), database.getMove(game, ply));
+                }
+            }
+        }
+    }
+
+    // A game of random legal moves, sometimes played to the end
+    private static MoveList randomGame(Random random) {
+        int plies = random.nextBoolean() ? 1000 : random.nextInt(60) + 1;
+        return TestGames.playRandomMoves(new Board(new GameLogic()), random, plies);
+    }
+
+    private static int resultOf(MoveList game) {
+        Board board = new Board(new GameLogic());
+        for (int ply = 0; ply < game.size(); ply++) {
+            board.make(game.get(ply));
+        }
+
+        return board.getResult();
+    }
+
+    // Hashes of the positions after each ply, the starting position is not indexed
+    private static List<Long> positionHashes(MoveList game) {
+        Board board = new Board(new GameLogic());
+        List<Long> hashes = new ArrayList<>();
+        for (int ply = 0; ply < game.size(); ply++) {
+            board.make(game.get(ply));
+            hashes.add(board.getHash());
+        }
+
+        return hashes;
+    }
+
+    private static int[] moves(GameRecordReader reader) {
+        int[] moves = new int[reader.getPlies()];
+        for (int ply = 0; ply < moves.length; ply++) {
+            moves[ply] = reader.getMove(ply);
+        }
+
+        return moves;
+    }
+
+    private static List<Long> toList(long[] values) {
+        List<Long> list = new ArrayList<>();
+        for (long value : values) {
+            list.add(value);
+        }
+
+        return list;
+    }
+}
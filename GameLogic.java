@@ -1,39 +1,138 @@
 import java.util.*;
 
 public class GameLogic implements PlayableLogic {
-    private static final int BOARD_SIZE = 11;
-    private static final Position DIR_UP = new Position(0, 1);
-    private static final Position DIR_DOWN = new Position(0, -1);
-    private static final Position DIR_LEFT = new Position(1, 0);
-    private static final Position DIR_RIGHT = new Position(-1, 0);
+    static final int BOARD_SIZE = 11;
+
+    // Upper bound on legal moves in any position: 24 attackers, each sliding up to 2 * (BOARD_SIZE - 1) squares
+    public static final int MAX_LEGAL_MOVES = 24 * 2 * (BOARD_SIZE - 1);
+    private static final Position DIR_UP = Position.of(0, 1);
+    private static final Position DIR_DOWN = Position.of(0, -1);
+    private static final Position DIR_LEFT = Position.of(1, 0);
+    private static final Position DIR_RIGHT = Position.of(-1, 0);
     private final ArrayList<ConcretePiece> pieces;
+
+    // Dense square index mirroring the pieces list, indexed by x * BOARD_SIZE + y
+    private final ConcretePiece[] board;
     private final ConcretePlayer player1, player2;
-    private boolean player2Move, isGameFinished;
+    private boolean player2Move, isGameFinished, isDraw;
+
+    // Zobrist hash of the piece placement and side to move
+    private long hash;
+
+    // Hashes of every position of the game, and the draw rules checked against them
+    private final PositionHistory positions;
+    private boolean threefoldRepetition;
+    private int plyLimit;
     private final Stack<Move> player1Moves;
     private final Stack<Move> player2Moves;
 
-    // HashSet will provide built-in uniqueness of items
-    private final HashMap<Position, HashSet<ConcretePiece>> piecesPerSquare;
+    // Every move in the order played, the ones from ply on were undone and can be redone
+    private final ArrayList<Move> history;
+    private int ply;
+
+    // Number of different pieces that have stood on each square, indexed like the board
+    private final int[] piecesPerSquare;
+
+    // Moves that were undone, reused by later moves
+    private final ArrayDeque<Move> freeMoves;
+
+    // Handed out by checkMove()
+    private final MoveCheck moveCheck;
+
+    private GameReportSink reportSink;
+    private final ArrayList<BoardListener> listeners;
+
+    // Set while redoMove() plays a move again, the end of a game it reaches was already reported
+    private boolean redoing;
+
+    // Archives every game played, null when not recording
+    private GameRecordWriter recordWriter;
+
+    // Counts moves and undos, null when not measuring
+    private GameMetrics metrics;
 
     public GameLogic() {
         this.pieces = new ArrayList<>();
+        this.board = new ConcretePiece[BOARD_SIZE * BOARD_SIZE];
         this.player1 = new ConcretePlayer(true);
         this.player2 = new ConcretePlayer(false);
         this.player1Moves = new Stack<>();
         this.player2Moves = new Stack<>();
-        this.piecesPerSquare = new HashMap<>();
+        this.history = new ArrayList<>();
+        this.piecesPerSquare = new int[BOARD_SIZE * BOARD_SIZE];
+        this.freeMoves = new ArrayDeque<>();
+        this.moveCheck = new MoveCheck();
+        this.positions = new PositionHistory();
+        this.reportSink = new ConsoleReportSink();
+        this.listeners = new ArrayList<>();
 
         this.reset();
     }
 
-    private ConcretePiece attack(ConcretePiece attacker, Position direction) {
+    /**
+     * Start a new game from the position of a snapshot, with empty move history, kills and wins.
+     * Such a game does not start from the usual layout, so its {@link GameRecordWriter} records cannot be replayed.
+     */
+    public GameLogic(GameSnapshot snapshot) {
+        this();
+
+        this.pieces.clear();
+        for (int square = 0; square < this.board.length; square++) {
+            byte type = snapshot.pieceAt(square);
+            if (type == Board.EMPTY) {
+                continue;
+            }
+
+            int x = PackedMove.x(square), y = PackedMove.y(square);
+            if (type == Board.KING) {
+                this.pieces.add(new King(x, y, this.player1, snapshot.pieceId(square)));
+            } else {
+                this.pieces.add(new Pawn(x, y, type == Board.DEFENDER ? this.player1 : this.player2, snapshot.pieceId(square)));
+            }
+        }
+
+        // Same order as reset(), attackers first and each side by id
+        this.pieces.sort(Comparator.comparing((ConcretePiece piece) -> piece.getOwner().isPlayerOne()).thenComparingInt(ConcretePiece::getId));
+        this.player2Move = snapshot.isSecondPlayerTurn();
+        this.isGameFinished = snapshot.isGameFinished();
+        this.isDraw = snapshot.isDraw();
+        this.setUpPieces();
+    }
+
+    private void attack(Move move, ConcretePiece attacker, Position direction) {
+        ConcretePiece victim = this.victim(attacker, move.oldPosition(), attacker.getPosition(), direction);
+        if (victim == null) {
+            return;
+        }
+
+        // A captured king stays on the board and ends the game
+        if (victim instanceof King) {
+            move.addVictim(victim, -1);
+            return;
+        }
+
+        int index = this.pieces.indexOf(victim);
+        this.pieces.remove(index);
+        this.board[squareIndex(victim.getPosition())] = null;
+        this.hash ^= Zobrist.piece(Board.pieceType(victim), squareIndex(victim.getPosition()));
+        move.addVictim(victim, index);
+        for (int i = 0; i < this.listeners.size(); i++) {
+            this.listeners.get(i).pieceCaptured(victim, victim.getPosition());
+        }
+    }
+
+    /**
+     * @return The piece the attacker captures in the direction by moving from one square to another, or null.
+     *         The board is read as if the move was made, whether it already was or not.
+     */
+    private ConcretePiece victim(ConcretePiece attacker, Position from, Position to, Position direction) {
         // King cannot attack
         if (attacker instanceof King) {
             return null;
         }
 
         // Check if there is a piece occupying the square in the direction being evaluated
-        ConcretePiece neighbor = this.getPieceAtPosition(new Position(attacker.getPosition().x() + direction.x(), attacker.getPosition().y() + direction.y()));
+        ConcretePiece neighbor = this.pieceAfterMove(Position.of(to.x() + direction.x(), to.y() + direction.y()), attacker, from, to);
         if (neighbor == null) {
             return null;
         }
@@ -45,143 +144,146 @@ public class GameLogic implements PlayableLogic {
         }
 
         // Calculate position of square across from attacker
-        Position eatBuddyPosition = new Position(attacker.getPosition().x() + (2 * direction.x()), attacker.getPosition().y() + (2 * direction.y()));
+        Position eatBuddyPosition = Position.of(to.x() + (2 * direction.x()), to.y() + (2 * direction.y()));
 
         // Get piece across from attacker which will assist in the kill
-        ConcretePiece eatBuddy = this.getPieceAtPosition(eatBuddyPosition);
+        ConcretePiece eatBuddy = this.pieceAfterMove(eatBuddyPosition, attacker, from, to);
 
         if (neighbor instanceof King) {
 
             // Neighbor is king, attack him
-            if (this.attackKing(attacker, eatBuddyPosition, eatBuddy, direction)) {
-                return neighbor;
-            }
-        } else {
+            return this.attackKing(attacker, from, to, eatBuddyPosition, eatBuddy, direction) ? neighbor : null;
+        }
 
-            // Try to kill enemy using corner, edge or eat buddy
-            if (this.isCorner(eatBuddyPosition) || this.notInBoard(eatBuddyPosition) || (eatBuddy != null && !(eatBuddy instanceof King) && attacker.isAlly(eatBuddy))) {
-                this.pieces.remove(neighbor);
-                return neighbor;
-            }
+        // Try to kill enemy using corner, edge or eat buddy
+        if (isCorner(eatBuddyPosition.x(), eatBuddyPosition.y()) || this.notInBoard(eatBuddyPosition) || (eatBuddy != null && !(eatBuddy instanceof King) && attacker.isAlly(eatBuddy))) {
+            return neighbor;
         }
 
-        // Better luck next time
+        // Misses are ignored
         return null;
     }
 
-    private boolean attackKing(ConcretePiece attacker, Position eatBuddyPosition, ConcretePiece eatBuddy, Position direction) {
+    private boolean attackKing(ConcretePiece attacker, Position from, Position to, Position eatBuddyPosition, ConcretePiece eatBuddy, Position direction) {
         // Get 2 diagonal pieces, if they exist
         Position diagonal1Pos = null, diagonal2Pos = null;
         if (direction.x() != 0) {
-            diagonal1Pos = new Position(attacker.getPosition().x() + direction.x(), attacker.getPosition().y() + 1);
-            diagonal2Pos = new Position(attacker.getPosition().x() + direction.x(), attacker.getPosition().y() - 1);
+            diagonal1Pos = Position.of(to.x() + direction.x(), to.y() + 1);
+            diagonal2Pos = Position.of(to.x() + direction.x(), to.y() - 1);
         }
         if (direction.y() != 0) {
-            diagonal1Pos = new Position(attacker.getPosition().x() + 1, attacker.getPosition().y() + direction.y());
-            diagonal2Pos = new Position(attacker.getPosition().x() - 1, attacker.getPosition().y() + direction.y());
+            diagonal1Pos = Position.of(to.x() + 1, to.y() + direction.y());
+            diagonal2Pos = Position.of(to.x() - 1, to.y() + direction.y());
         }
-        ConcretePiece diagonal1 = this.getPieceAtPosition(diagonal1Pos), diagonal2 = this.getPieceAtPosition(diagonal2Pos);
+        ConcretePiece diagonal1 = this.pieceAfterMove(diagonal1Pos, attacker, from, to), diagonal2 = this.pieceAfterMove(diagonal2Pos, attacker, from, to);
 
         // For each of the 3 surrounding buddies, check if allies (will also handle literal "edge" cases)
         return (this.notInBoard(eatBuddyPosition) || attacker.isAlly(eatBuddy)) && (this.notInBoard(diagonal1Pos) || attacker.isAlly(diagonal1)) && (this.notInBoard(diagonal2Pos) || attacker.isAlly(diagonal2));
     }
 
-    private boolean isCorner(Position pos) {
-        return (pos.x() == this.getBoardSize() - 1 && pos.y() == this.getBoardSize() - 1) || (pos.x() == 0 && pos.y() == 0) || (pos.x() == 0 && pos.y() == this.getBoardSize() - 1) || (pos.x() == this.getBoardSize() - 1 && pos.y() == 0);
-    }
-
-    private void printMoveHistory(Stack<Move> moves) {
-        // Create map between piece -> moves
-        HashMap<ConcretePiece, ArrayList<Move>> movesPerPiece = new HashMap<>();
-        for (Move move : moves) {
-            movesPerPiece.computeIfAbsent(move.target(), k -> new ArrayList<>()).add(move);
-        }
-
-        movesPerPiece.entrySet().stream()
-                // Sort map values by move list length and keys by ID in ascending order
-                .sorted(Comparator.comparingInt((Map.Entry<ConcretePiece, ArrayList<Move>> o) -> o.getValue().size()).thenComparingInt(o -> o.getKey().getId()))
-                // Print data
-                .forEach(entry -> {
-                    System.out.print(entry.getKey() + ": [");
-                    ArrayList<Move> pieceMoves = entry.getValue();
-                    for (Move move : pieceMoves) {
-                        System.out.print(move.oldPosition());
-                        System.out.print(", ");
-                    }
-                    System.out.print(entry.getKey().getPosition());
-                    System.out.print("]\n");
-                });
-    }
-
-    private void printKills() {
-        this.pieces.stream()
-                // Sort by kills
-                .sorted(Comparator.comparingInt(ConcretePiece::getKills)
-                        // Sort by ID in ascending order
-                        .thenComparingInt(ConcretePiece::getId))
-                // Remove zeroes
-                .filter(piece -> piece.getKills() != 0)
-                // Print data
-                .forEach(piece -> System.out.println(piece + ": " + piece.getKills() + " kills"));
-    }
-
-    private void printDistances() {
-        this.pieces.stream()
-                // Sort by distance travelled
-                .sorted(Comparator.comparingInt(ConcretePiece::distanceTravelled)
-                        // Descending order
-                        .reversed()
-                        // Sort by ID in ascending order
-                        .thenComparingInt(ConcretePiece::getId)).filter(piece -> piece.distanceTravelled() != 0)
-                // Print
-                .forEach(piece -> System.out.println(piece + ": " + piece.distanceTravelled() + " squares"));
-    }
-
-    private void printStepsPerSquare() {
-        this.piecesPerSquare.entrySet().stream()
-                // 2 and above
-                .filter(entry -> entry.getValue().size() >= 2)
-                // Sort by number of unique pieces
-                .sorted(Comparator.comparingInt((Map.Entry<Position, HashSet<ConcretePiece>> o) -> o.getValue().size())
-                        // In descending order
-                        .reversed()
-                        // Sort by x value
-                        .thenComparingInt(o -> o.getKey().x())
-                        // Sort by y value
-                        .thenComparingInt(o -> o.getKey().y()))
-                // Print
-                .forEach(entry -> System.out.println(entry.getKey().toString() + entry.getValue().size() + " pieces"));
-    }
-
-    private void printStars() {
-        for (int i = 1; i <= 75; i++) {
-            System.out.print("*");
-        }
-        System.out.println();
-    }
-
-    private void winState() {
+    // The piece on a square once the piece has moved from one square to another
+    private ConcretePiece pieceAfterMove(Position position, ConcretePiece piece, Position from, Position to) {
+        if (position.x() == to.x() && position.y() == to.y()) {
+            return piece;
+        }
+        if (position.x() == from.x() && position.y() == from.y()) {
+            return null;
+        }
+
+        return this.getPieceAtPosition(position);
+    }
+
+    private static int squareIndex(int x, int y) {
+        return x * BOARD_SIZE + y;
+    }
+
+    private static int squareIndex(Position position) {
+        return squareIndex(position.x(), position.y());
+    }
+
+    private void placePiece(ConcretePiece piece, Position position) {
+        // Keep the square index and hash in sync with the piece's own position
+        byte type = Board.pieceType(piece);
+        Position oldPosition = piece.getPosition();
+        if (this.board[squareIndex(oldPosition)] == piece) {
+            this.board[squareIndex(oldPosition)] = null;
+            this.hash ^= Zobrist.piece(type, squareIndex(oldPosition));
+        }
+        piece.setPosition(position);
+        this.board[squareIndex(position)] = piece;
+        this.hash ^= Zobrist.piece(type, squareIndex(position));
+
+        for (int i = 0; i < this.listeners.size(); i++) {
+            this.listeners.get(i).pieceMoved(piece, oldPosition, position);
+        }
+    }
+
+    private void switchTurn() {
+        this.player2Move = !this.player2Move;
+        this.hash ^= Zobrist.attackerTurn();
+
+        for (int i = 0; i < this.listeners.size(); i++) {
+            this.listeners.get(i).turnChanged(this.player2Move);
+        }
+    }
+
+    /**
+     * The one definition of the corners, {@link Board} and the searches follow it too.
+     */
+    static boolean isCorner(int x, int y) {
+        return (x == 0 || x == BOARD_SIZE - 1) && (y == 0 || y == BOARD_SIZE - 1);
+    }
+
+    private void winState(Move move) {
         this.isGameFinished = true;
+        move.setWinner(this.isSecondPlayerTurn() ? this.getSecondPlayer() : this.getFirstPlayer());
+
+        if (this.recordWriter != null) {
+            this.recordWriter.gameFinished(this.isSecondPlayerTurn() ? Board.ATTACKER_WON : Board.DEFENDER_WON);
+        }
 
         if (this.isSecondPlayerTurn()) {
             this.getSecondPlayer().win();
-            this.printMoveHistory(this.player2Moves);
-            this.printMoveHistory(this.player1Moves);
+            if (!this.redoing) {
+                this.reportSink.gameFinished(this.player2Moves, this.player1Moves, this.pieces, this.piecesPerSquare);
+            }
         } else {
             this.getFirstPlayer().win();
-            this.printMoveHistory(this.player1Moves);
-            this.printMoveHistory(this.player2Moves);
+            if (!this.redoing) {
+                this.reportSink.gameFinished(this.player1Moves, this.player2Moves, this.pieces, this.piecesPerSquare);
+            }
+        }
+
+        for (int i = 0; i < this.listeners.size(); i++) {
+            this.listeners.get(i).gameFinished(move.winner());
+        }
+    }
+
+    private void drawState(Move move) {
+        this.isGameFinished = true;
+        this.isDraw = true;
+        move.setDraw();
+
+        if (this.recordWriter != null) {
+            this.recordWriter.gameFinished(Board.DRAW);
         }
-        this.printStars();
 
-        this.printKills();
-        this.printStars();
+        for (int i = 0; i < this.listeners.size(); i++) {
+            this.listeners.get(i).gameFinished(null);
+        }
+    }
 
-        this.printDistances();
-        this.printStars();
+    // Remember the position after a move, ending the game in a draw if a draw rule applies
+    private void recordPosition(Move move) {
+        int repetitions = this.positions.push(this.hash);
+        if (this.isGameFinished) {
+            return;
+        }
 
-        this.printStepsPerSquare();
-        this.printStars();
+        // Plies played are the positions after the starting one
+        if ((this.threefoldRepetition && repetitions >= 3) || (this.plyLimit > 0 && this.positions.size() - 1 >= this.plyLimit)) {
+            this.drawState(move);
+        }
     }
 
     private boolean notInBoard(Position position) {
@@ -193,85 +295,146 @@ public class GameLogic implements PlayableLogic {
 
     @Override
     public boolean move(Position a, Position b) {
+        long start = this.metrics != null ? System.nanoTime() : 0;
+        MoveStatus status = this.validate(a, b);
+        if (status != MoveStatus.OK) {
+            if (this.metrics != null) {
+                this.metrics.moveRejected(this.squareOrNone(a), this.squareOrNone(b), status, System.nanoTime() - start);
+            }
+            return false;
+        }
+
+        // If all checks passed, make the move, which replaces any moves that were undone
+        this.discardRedo();
+        Move move = this.freeMoves.isEmpty() ? new Move() : this.freeMoves.pop();
+        this.play(move, this.board[squareIndex(a)], b);
+        if (this.metrics != null) {
+            this.metrics.moveAccepted(squareIndex(a), squareIndex(b), move.victimCount(), move.capturedKing(), move.isCornerEscape(), System.nanoTime() - start);
+        }
+
+        return true;
+    }
+
+    /**
+     * Check a move with the same rules as {@link #move(Position, Position)}, without playing it and without allocating.
+     *
+     * @return Whether the move is legal and the pieces it would capture, in an instance reused by the next check.
+     */
+    public MoveCheck checkMove(Position a, Position b) {
+        this.moveCheck.set(this.validate(a, b));
+        if (this.moveCheck.isLegal()) {
+            ConcretePiece target = this.board[squareIndex(a)];
+            this.addCapture(target, a, b, DIR_UP);
+            this.addCapture(target, a, b, DIR_DOWN);
+            this.addCapture(target, a, b, DIR_LEFT);
+            this.addCapture(target, a, b, DIR_RIGHT);
+        }
+
+        return this.moveCheck;
+    }
+
+    private void addCapture(ConcretePiece target, Position a, Position b, Position direction) {
+        ConcretePiece victim = this.victim(target, a, b, direction);
+        if (victim != null) {
+            this.moveCheck.addCapture(victim);
+        }
+    }
+
+    // Square index of a position for reporting, -1 if it is null or off the board
+    private int squareOrNone(Position position) {
+        return this.notInBoard(position) ? -1 : squareIndex(position);
+    }
+
+    // The rules of a move, checked in order without changing anything
+    private MoveStatus validate(Position a, Position b) {
+        // Nothing moves once the game has ended, until a reset or an undo
+        if (this.isGameFinished) {
+            return MoveStatus.GAME_FINISHED;
+        }
+
         // Check that a and b are on the board
         if (this.notInBoard(a) || this.notInBoard(b)) {
-            return false;
+            return MoveStatus.OFF_BOARD;
         }
 
         // Check that a and b are different coords and that they're not diagonal to each other
         if (a.equals(b) || (a.x() != b.x() && a.y() != b.y())) {
-            return false;
+            return MoveStatus.DIAGONAL;
         }
 
         // Check if a is not empty
         ConcretePiece target = this.getPieceAtPosition(a);
         if (target == null) {
-            return false;
+            return MoveStatus.NO_PIECE;
         }
 
         // Check whose turn it is
         if ((this.player2Move && target.getOwner() != this.getSecondPlayer()) || (!this.player2Move && target.getOwner() != this.getFirstPlayer())) {
-            return false;
+            return MoveStatus.WRONG_TURN;
         }
 
         // Check if path between a and b is empty
         if (a.x() == b.x()) {
             Position direction = a.y() < b.y() ? DIR_UP : DIR_DOWN;
             for (int y = a.y() + direction.y(); y != b.y() + direction.y(); y += direction.y()) {
-                if (this.getPieceAtPosition(new Position(a.x(), y)) != null) {
-                    return false;
+                if (this.board[squareIndex(a.x(), y)] != null) {
+                    return MoveStatus.BLOCKED;
                 }
             }
         } else {
             Position direction = a.x() < b.x() ? DIR_LEFT : DIR_RIGHT;
             for (int x = a.x() + direction.x(); x != b.x() + direction.x(); x += direction.x()) {
-                if (this.getPieceAtPosition(new Position(x, a.y())) != null) {
-                    return false;
+                if (this.board[squareIndex(x, a.y())] != null) {
+                    return MoveStatus.BLOCKED;
                 }
             }
         }
 
         // Handle corners
-        if (this.isCorner(b)) {
-            if (target instanceof Pawn) {
-                return false;
-            } else if (target instanceof King) {
-                target.setPosition(b);
-                this.winState();
-
-                return true;
-            }
+        if (isCorner(b.x(), b.y()) && target instanceof Pawn) {
+            return MoveStatus.CORNER_FORBIDDEN;
         }
 
-        // If all checks passed, make the move
+        return MoveStatus.OK;
+    }
+
+    private void play(Move move, ConcretePiece target, Position b) {
         Position oldPosition = target.getPosition();
-        ArrayList<ConcretePiece> victims = new ArrayList<>();
-        target.setPosition(b);
+        this.recordMove(oldPosition, b);
+        move.set(target, oldPosition, b);
+        if (this.ply == this.history.size()) {
+            this.history.add(move);
+        } else {
+            this.history.set(this.ply, move);
+        }
+        this.ply++;
 
-        // Kill if needed
-        victims.add(this.attack(target, DIR_UP));
-        victims.add(this.attack(target, DIR_DOWN));
-        victims.add(this.attack(target, DIR_LEFT));
-        victims.add(this.attack(target, DIR_RIGHT));
+        // King reaching a corner wins straight away, without being counted in the move history
+        if (target instanceof King && isCorner(b.x(), b.y())) {
+            move.setCornerEscape();
+            this.placePiece(target, b);
+            this.winState(move);
+            this.positions.push(this.hash);
+
+            return;
+        }
 
-        // Remove null values
-        victims.removeAll(Collections.singleton(null));
+        this.placePiece(target, b);
+
+        // Kill if needed, misses are ignored
+        this.attack(move, target, DIR_UP);
+        this.attack(move, target, DIR_DOWN);
+        this.attack(move, target, DIR_LEFT);
+        this.attack(move, target, DIR_RIGHT);
 
         // Check if king was cannibalized
         // Defer triggering win state until later so current move is completely processed
-        boolean winState = false;
-        for (ConcretePiece victim : victims) {
-            if (victim instanceof King) {
-                winState = true;
-                break;
-            }
-        }
-
-        Move move = new Move(target, oldPosition, victims);
+        boolean winState = move.capturedKing();
 
         // Store move and check if attacker has been defeated
-        target.pushPosition(b);
-        this.piecesPerSquare.computeIfAbsent(b, k -> new HashSet<>()).add(target);
+        if (target.pushPosition(b)) {
+            this.piecesPerSquare[squareIndex(b)]++;
+        }
         if (this.isSecondPlayerTurn()) {
             this.player2Moves.push(move);
         } else {
@@ -287,38 +450,164 @@ public class GameLogic implements PlayableLogic {
             }
 
             if (!attackerFound) {
-                this.winState();
+                this.winState(move);
             }
         }
 
         if (winState) {
             // Trigger win state
-            this.winState();
+            this.winState(move);
         } else {
             // Register kills
-            target.addKills(victims.size());
+            target.addKills(move.victimCount());
 
             // End turn
-            this.player2Move = !this.player2Move;
+            this.switchTurn();
         }
+        this.recordPosition(move);
+    }
 
-        return true;
+    private void recordMove(Position a, Position b) {
+        if (this.recordWriter != null) {
+            this.recordWriter.moveMade(squareIndex(a), squareIndex(b));
+        }
     }
 
-    @Override
-    public ConcretePiece getPieceAtPosition(Position position) {
-        ConcretePiece found = null;
+    /**
+     * Write every legal move of the side to move into the given buffer, encoded with {@link PackedMove}.
+     * Follows the same rules as {@link #move(Position, Position)}. A finished game has no legal moves.
+     *
+     * @param moves Buffer of at least {@link #MAX_LEGAL_MOVES} entries.
+     * @return The number of moves written.
+     */
+    public int generateLegalMoves(int[] moves) {
+        if (this.isGameFinished) {
+            return 0;
+        }
+
+        ConcretePlayer owner = this.player2Move ? this.getSecondPlayer() : this.getFirstPlayer();
+        int count = 0;
         for (ConcretePiece piece : this.pieces) {
-            if (piece.getPosition().equals(position)) {
-                if (found != null) {
-                    System.out.println("Two pieces in the same position " + position);
-                }
+            if (piece.getOwner() != owner) {
+                continue;
+            }
+
+            count = this.generateSlides(piece, DIR_UP, moves, count);
+            count = this.generateSlides(piece, DIR_DOWN, moves, count);
+            count = this.generateSlides(piece, DIR_LEFT, moves, count);
+            count = this.generateSlides(piece, DIR_RIGHT, moves, count);
+        }
+
+        return count;
+    }
+
+    private int generateSlides(ConcretePiece piece, Position direction, int[] moves, int count) {
+        int x = piece.getPosition().x(), y = piece.getPosition().y();
+        int from = squareIndex(x, y);
 
-                found = piece;
+        // Slide until the edge of the board or the first occupied square
+        for (x += direction.x(), y += direction.y(); x >= 0 && y >= 0 && x < BOARD_SIZE && y < BOARD_SIZE; x += direction.x(), y += direction.y()) {
+            if (this.board[squareIndex(x, y)] != null) {
+                break;
+            }
+
+            // Only the king may land on a corner
+            if (piece instanceof Pawn && isCorner(x, y)) {
+                continue;
             }
+
+            moves[count++] = PackedMove.of(from, squareIndex(x, y));
         }
 
-        return found;
+        return count;
+    }
+
+    /**
+     * Choose where end of game reports go, {@link ConsoleReportSink} by default.
+     */
+    public void setReportSink(GameReportSink reportSink) {
+        this.reportSink = reportSink;
+    }
+
+    /**
+     * Be told of every change to the board from now on. Listeners are called on the thread that changes the game, in the order added.
+     */
+    public void addBoardListener(BoardListener listener) {
+        this.listeners.add(listener);
+    }
+
+    public void removeBoardListener(BoardListener listener) {
+        this.listeners.remove(listener);
+    }
+
+    /**
+     * Archive every game played from now on, or stop archiving with null.
+     * A game is written when it finishes, or unfinished when the board is reset mid-game.
+     */
+    public void setRecordWriter(GameRecordWriter recordWriter) {
+        this.recordWriter = recordWriter;
+    }
+
+    /**
+     * Count every move and undo from now on, or stop counting with null.
+     */
+    public void setMetrics(GameMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Choose the draw rules, both off by default.
+     *
+     * @param threefoldRepetition End the game in a draw once the same position occurs for the third time with the same side to move.
+     * @param plyLimit            End the game in a draw after this many plies, or 0 for no limit.
+     */
+    public void setDrawRules(boolean threefoldRepetition, int plyLimit) {
+        this.threefoldRepetition = threefoldRepetition;
+        this.plyLimit = plyLimit;
+    }
+
+    /**
+     * @return True if the game finished without a winner, through a draw rule.
+     */
+    public boolean isDraw() {
+        return this.isDraw;
+    }
+
+    /**
+     * @return How often the current position has occurred in this game.
+     */
+    public int getRepetitions() {
+        return this.positions.repetitions();
+    }
+
+    /**
+     * @return The {@link Zobrist} hash of the current piece placement and side to move.
+     */
+    public long getHash() {
+        return this.hash;
+    }
+
+    /**
+     * Copy the current position into an immutable snapshot that other threads can read without locking.
+     * Costs one array of {@link Board#SQUARES} bytes and a pass over the pieces.
+     */
+    public GameSnapshot snapshot() {
+        byte[] squares = new byte[this.board.length];
+        for (int i = 0; i < this.pieces.size(); i++) {
+            ConcretePiece piece = this.pieces.get(i);
+            squares[squareIndex(piece.getPosition())] = GameSnapshot.encode(piece);
+        }
+
+        return new GameSnapshot(squares, this.player2Move, this.isGameFinished, this.isDraw, this.ply, this.hash);
+    }
+
+    @Override
+    public ConcretePiece getPieceAtPosition(Position position) {
+        if (this.notInBoard(position)) {
+            return null;
+        }
+
+        return this.board[squareIndex(position)];
     }
 
     @Override
@@ -343,10 +632,18 @@ public class GameLogic implements PlayableLogic {
 
     @Override
     public void reset() {
+        if (this.recordWriter != null) {
+            this.recordWriter.gameReset();
+        }
+
         this.isGameFinished = false;
+        this.isDraw = false;
         this.player2Move = true;
 
         this.pieces.clear();
+        this.freeMoves.addAll(this.history);
+        this.history.clear();
+        this.ply = 0;
         this.player1Moves.clear();
         this.player2Moves.clear();
 
@@ -389,34 +686,165 @@ public class GameLogic implements PlayableLogic {
         this.pieces.add(new Pawn(6, 6, this.player1, 12));
         this.pieces.add(new Pawn(5, 7, this.player1, 13));
 
-        this.piecesPerSquare.clear();
+        this.setUpPieces();
+    }
+
+    // Index the pieces list on the board and start the histories from the current position
+    private void setUpPieces() {
+        Arrays.fill(this.board, null);
+        this.hash = this.player2Move ? Zobrist.attackerTurn() : 0;
+        Arrays.fill(this.piecesPerSquare, 0);
         for (ConcretePiece piece : this.pieces) {
             piece.reset();
-            this.piecesPerSquare.computeIfAbsent(piece.getPosition(), k -> new HashSet<>()).add(piece);
+            this.board[squareIndex(piece.getPosition())] = piece;
+            this.hash ^= Zobrist.piece(Board.pieceType(piece), squareIndex(piece.getPosition()));
+            this.piecesPerSquare[squareIndex(piece.getPosition())]++;
+        }
+        this.positions.clear();
+        this.positions.push(this.hash);
+
+        for (int i = 0; i < this.listeners.size(); i++) {
+            this.listeners.get(i).boardReset();
         }
     }
 
     @Override
     public void undoLastMove() {
-        Stack<Move> moves = this.player2Moves;
+        if (this.ply == 0) {
+            return;
+        }
 
-        // Need to undo previous turn so choose other player's stack
-        if (this.player2Move) {
-            moves = this.player1Moves;
+        // The move stays in the history so it can be redone
+        Move lastMove = this.history.get(--this.ply);
+        ConcretePiece target = lastMove.target();
+        this.positions.pop();
+        if (this.recordWriter != null) {
+            this.recordWriter.moveUndone();
+        }
+        if (this.metrics != null) {
+            this.metrics.moveUndone(this.ply);
         }
 
-        if (moves.isEmpty()) {
+        // Take back the end of the game, the report already written stays
+        if (lastMove.winner() != null) {
+            lastMove.winner().undoWin();
+        }
+        if (lastMove.winner() != null || lastMove.isDraw()) {
+            this.isGameFinished = false;
+            this.isDraw = false;
+            for (int i = 0; i < this.listeners.size(); i++) {
+                this.listeners.get(i).gameResumed();
+            }
+        }
+
+        if (lastMove.isCornerEscape()) {
+            this.placePiece(target, lastMove.oldPosition());
             return;
         }
 
-        Move lastMove = moves.pop();
-        this.piecesPerSquare.get(lastMove.target().getPosition()).remove(lastMove.target());
-        this.piecesPerSquare.get(lastMove.oldPosition()).add(lastMove.target());
-        lastMove.target().popPosition();
-        lastMove.target().setPosition(lastMove.oldPosition());
-        this.pieces.addAll(lastMove.victims());
+        // Only the move that captures the king keeps the turn
+        if (!lastMove.capturedKing()) {
+            this.switchTurn();
+            target.addKills(-lastMove.victimCount());
+        }
+        if (target.getOwner() == this.getSecondPlayer()) {
+            this.player2Moves.pop();
+        } else {
+            this.player1Moves.pop();
+        }
 
-        this.player2Move = !this.player2Move;
+        // Only forget the square if this was the piece's only visit
+        if (target.popPosition()) {
+            this.piecesPerSquare[squareIndex(lastMove.newPosition())]--;
+        }
+        this.placePiece(target, lastMove.oldPosition());
+
+        // Put victims back where they were in the pieces list, last removed first
+        for (int i = lastMove.victimCount() - 1; i >= 0; i--) {
+            ConcretePiece victim = lastMove.victim(i);
+
+            // A captured king never leaves the board
+            if (lastMove.victimIndex(i) < 0) {
+                continue;
+            }
+
+            this.pieces.add(lastMove.victimIndex(i), victim);
+            this.board[squareIndex(victim.getPosition())] = victim;
+            this.hash ^= Zobrist.piece(Board.pieceType(victim), squareIndex(victim.getPosition()));
+            for (int j = 0; j < this.listeners.size(); j++) {
+                this.listeners.get(j).pieceRestored(victim, victim.getPosition());
+            }
+        }
+    }
+
+    /**
+     * Play again the last move taken back with {@link #undoLastMove()}, restoring exactly the state it left.
+     * Redoing the end of a game credits the winner and tells the listeners again, but does not write a second report.
+     *
+     * @return False if there is no move to redo. Playing any new move clears the moves to redo.
+     */
+    public boolean redoMove() {
+        if (this.ply == this.history.size()) {
+            return false;
+        }
+
+        Move move = this.history.get(this.ply);
+        this.redoing = true;
+        try {
+            this.play(move, move.target(), move.newPosition());
+        } finally {
+            this.redoing = false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Undo or redo moves until the given number of plies has been played, one O(1) step per ply.
+     *
+     * @param ply Between 0, the starting position, and {@link #getHistorySize()}.
+     */
+    public void goToPly(int ply) {
+        if (ply < 0 || ply > this.history.size()) {
+            throw new IndexOutOfBoundsException(ply);
+        }
+
+        while (this.ply > ply) {
+            this.undoLastMove();
+        }
+        while (this.ply < ply) {
+            this.redoMove();
+        }
+    }
+
+    /**
+     * @return The number of plies played to reach the current position.
+     */
+    public int getPly() {
+        return this.ply;
+    }
+
+    /**
+     * @return The number of plies played and undone plies that can still be redone.
+     */
+    public int getHistorySize() {
+        return this.history.size();
+    }
+
+    /**
+     * @return The move played at the given ply as a {@link PackedMove}, without captures.
+     *         Playing the moves up to {@link #getPly()} from a new game reaches the current position again.
+     */
+    public int getMove(int ply) {
+        Move move = this.history.get(ply);
+
+        return PackedMove.of(squareIndex(move.oldPosition()), squareIndex(move.newPosition()));
+    }
+
+    private void discardRedo() {
+        while (this.history.size() > this.ply) {
+            this.freeMoves.push(this.history.remove(this.history.size() - 1));
+        }
     }
 
     @Override
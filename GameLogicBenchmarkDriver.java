@@ -0,0 +1,132 @@
+import benchmarks.GameLogicDriver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The GameLogic side of {@link benchmarks.GameLogicBenchmark}, loaded by name through {@link GameLogicDriver#load()}.
+ * The games it replays are random legal games generated from a fixed seed, so every run measures the same moves.
+ */
+public class GameLogicBenchmarkDriver implements GameLogicDriver {
+    private static final int GAMES = 20;
+    private static final int MAX_PLIES = 300;
+    private static final long SEED = 42;
+
+    private static final Position[] CAPTURE_SETUP = {
+            Position.of(0, 3), Position.of(0, 2),
+            Position.of(3, 5), Position.of(2, 5)
+    };
+
+    private final GameLogic gameLogic;
+    private final GameLogic captureLogic;
+    private final List<Position[]> games;
+
+    public GameLogicBenchmarkDriver() {
+        // Keep the end of game reports out of the results
+        this.gameLogic = quietGame();
+
+        // One more attacker move from here captures the defender on (2, 5)
+        this.captureLogic = quietGame();
+        for (int i = 0; i < CAPTURE_SETUP.length; i += 2) {
+            this.captureLogic.move(CAPTURE_SETUP[i], CAPTURE_SETUP[i + 1]);
+        }
+
+        this.games = generateGames(new Random(SEED));
+    }
+
+    private static GameLogic quietGame() {
+        GameLogic gameLogic = new GameLogic();
+        gameLogic.setReportSink(NoOpReportSink.INSTANCE);
+        return gameLogic;
+    }
+
+    private static List<Position[]> generateGames(Random random) {
+        GameLogic gameLogic = quietGame();
+        List<Position[]> games = new ArrayList<>();
+        int[] moves = new int[GameLogic.MAX_LEGAL_MOVES];
+
+        for (int game = 0; game < GAMES; game++) {
+            gameLogic.reset();
+            List<Position> positions = new ArrayList<>();
+            while (!gameLogic.isGameFinished() && positions.size() / 2 < MAX_PLIES) {
+                int move = moves[random.nextInt(gameLogic.generateLegalMoves(moves))];
+                Position a = PackedMove.toPosition(PackedMove.from(move)), b = PackedMove.toPosition(PackedMove.to(move));
+                gameLogic.move(a, b);
+                positions.add(a);
+                positions.add(b);
+            }
+
+            games.add(positions.toArray(new Position[0]));
+        }
+
+        return games;
+    }
+
+    @Override
+    public boolean legalMoveAndUndo() {
+        boolean moved = this.gameLogic.move(Position.of(3, 0), Position.of(3, 1));
+        this.gameLogic.undoLastMove();
+        return moved;
+    }
+
+    @Override
+    public int illegalMoves() {
+        int accepted = this.gameLogic.move(Position.of(3, 0), Position.of(4, 1)) ? 1 : 0;
+        accepted |= this.gameLogic.move(Position.of(3, 0), Position.of(3, 10)) ? 2 : 0;
+        accepted |= this.gameLogic.move(Position.of(5, 3), Position.of(5, 2)) ? 4 : 0;
+        accepted |= this.gameLogic.move(Position.of(2, 2), Position.of(2, 3)) ? 8 : 0;
+        return accepted;
+    }
+
+    @Override
+    public boolean captureMoveAndUndo() {
+        boolean moved = this.captureLogic.move(Position.of(3, 0), Position.of(3, 5));
+        this.captureLogic.undoLastMove();
+        return moved;
+    }
+
+    @Override
+    public int getPieceAtPosition() {
+        int found = 0;
+        for (int x = 0; x < this.gameLogic.getBoardSize(); x++) {
+            for (int y = 0; y < this.gameLogic.getBoardSize(); y++) {
+                if (this.gameLogic.getPieceAtPosition(Position.of(x, y)) != null) {
+                    found++;
+                }
+            }
+        }
+
+        return found;
+    }
+
+    @Override
+    public void reset() {
+        this.gameLogic.reset();
+    }
+
+    @Override
+    public int replayGames() {
+        int accepted = 0;
+        for (Position[] game : this.games) {
+            GameLogic replay = quietGame();
+            for (int i = 0; i < game.length; i += 2) {
+                if (replay.move(game[i], game[i + 1])) {
+                    accepted++;
+                }
+            }
+        }
+
+        return accepted;
+    }
+
+    @Override
+    public void moveForUndo() {
+        this.gameLogic.move(Position.of(3, 0), Position.of(3, 1));
+    }
+
+    @Override
+    public void undoLastMove() {
+        this.gameLogic.undoLastMove();
+    }
+}
@@ -1,9 +1,11 @@
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
 
 import java.io.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Stream;
@@ -82,6 +84,439 @@ class GameLogicTest {
             assertEquals(expectedOutput, capturedOutput);
         }
 
+    @Test
+    void undoAndRedoRestoreEveryPly() {
+        GameLogic game = TestGames.quietGame();
+        List<List<String>> states = playRandomGame(game, new Random(1));
+        assertTrue(game.isGameFinished());
+        assertEquals(1, game.getFirstPlayer().getWins() + game.getSecondPlayer().getWins());
+
+        for (int ply = states.size() - 2; ply >= 0; ply--) {
+            game.undoLastMove();
+            assertEquals(states.get(ply), TestGames.state(game), "after undoing to ply " + ply);
+        }
+        game.undoLastMove();
+        assertEquals(states.get(0), TestGames.state(game));
+
+        for (int ply = 1; ply < states.size(); ply++) {
+            assertTrue(game.redoMove());
+            assertEquals(states.get(ply), TestGames.state(game), "after redoing to ply " + ply);
+        }
+        assertFalse(game.redoMove());
+    }
+
+    @Test
+    void goToPlyMovesBothWays() {
+        GameLogic game = TestGames.quietGame();
+        List<List<String>> states = playRandomGame(game, new Random(1));
+        int last = states.size() - 1;
+
+        for (int ply : new int[] {0, last / 2, last, 3, last - 1, 0, last}) {
+            game.goToPly(ply);
+            assertEquals(ply, game.getPly());
+            assertEquals(last, game.getHistorySize());
+            assertEquals(states.get(ply), TestGames.state(game), "at ply " + ply);
+        }
+
+        assertThrows(IndexOutOfBoundsException.class, () -> game.goToPly(-1));
+        assertThrows(IndexOutOfBoundsException.class, () -> game.goToPly(last + 1));
+    }
+
+    @Test
+    void newMoveClearsRedo() {
+        GameLogic game = TestGames.quietGame();
+        TestGames.playRandomMoves(game, new Random(2), 10);
+        game.goToPly(7);
+        assertEquals(10, game.getHistorySize());
+
+        int[] moves = new int[GameLogic.MAX_LEGAL_MOVES];
+        game.generateLegalMoves(moves);
+        assertTrue(game.move(PackedMove.toPosition(PackedMove.from(moves[0])), PackedMove.toPosition(PackedMove.to(moves[0]))));
+        assertEquals(8, game.getPly());
+        assertEquals(8, game.getHistorySize());
+        assertFalse(game.redoMove());
+    }
+
+    @Test
+    void checkMoveAgreesWithMove() {
+        GameLogic game = TestGames.quietGame();
+        int[] captured = new int[1];
+        game.addBoardListener(new BoardListener() {
+            @Override
+            public void pieceCaptured(ConcretePiece piece, Position position) {
+                captured[0]++;
+            }
+        });
+
+        // Every position of a game to its end, trying every pair of squares on the board and one square around it
+        Random random = new Random(1);
+        while (true) {
+            for (int fromX = -1; fromX <= game.getBoardSize(); fromX++) {
+                for (int fromY = -1; fromY <= game.getBoardSize(); fromY++) {
+                    for (int toX = -1; toX <= game.getBoardSize(); toX++) {
+                        for (int toY = -1; toY <= game.getBoardSize(); toY++) {
+                            Position from = Position.of(fromX, fromY), to = Position.of(toX, toY);
+                            MoveCheck check = game.checkMove(from, to);
+                            boolean legal = check.isLegal(), capturesKing = check.capturesKing();
+                            int captures = check.captureCount();
+
+                            captured[0] = 0;
+                            assertEquals(legal, game.move(from, to), from + " -> " + to);
+                            if (legal) {
+                                // The king stays on the board when captured and ends the game instead
+                                assertEquals(captures, captured[0] + (capturesKing ? 1 : 0), from + " -> " + to);
+                                assertTrue(!capturesKing || game.isGameFinished());
+                                game.undoLastMove();
+                            } else {
+                                assertEquals(0, captures);
+                            }
+                        }
+                    }
+                }
+            }
+            assertFalse(game.checkMove(null, Position.of(0, 0)).isLegal());
+            assertFalse(game.move(null, Position.of(0, 0)));
+
+            if (game.isGameFinished()) {
+                break;
+            }
+            TestGames.playRandomMoves(game, random, 1);
+        }
+    }
+
+    @Test
+    void finishedGameRejectsEveryMove() {
+        GameLogic game = TestGames.quietGame();
+        TestGames.playRandomMoves(game, new Random(1), Integer.MAX_VALUE);
+        assertTrue(game.isGameFinished());
+        int plies = game.getPly();
+        long hash = game.getHash();
+
+        // Moves that were legal before the last ply are refused too, until the end is taken back
+        int last = game.getMove(plies - 1);
+        Position from = PackedMove.toPosition(PackedMove.from(last)), to = PackedMove.toPosition(PackedMove.to(last));
+        for (int fromX = 0; fromX < game.getBoardSize(); fromX++) {
+            for (int fromY = 0; fromY < game.getBoardSize(); fromY++) {
+                for (int toX = 0; toX < game.getBoardSize(); toX++) {
+                    for (int toY = 0; toY < game.getBoardSize(); toY++) {
+                        Position a = Position.of(fromX, fromY), b = Position.of(toX, toY);
+                        assertEquals(MoveStatus.GAME_FINISHED, game.checkMove(a, b).status(), a + " -> " + b);
+                        assertFalse(game.move(a, b), a + " -> " + b);
+                    }
+                }
+            }
+        }
+        assertEquals(plies, game.getPly());
+        assertEquals(plies, game.getHistorySize());
+        assertEquals(hash, game.getHash());
+
+        game.undoLastMove();
+        assertFalse(game.isGameFinished());
+        assertEquals(MoveStatus.OK, game.checkMove(from, to).status());
+        assertTrue(game.move(from, to));
+        assertTrue(game.isGameFinished());
+    }
+
+    @Test
+    void threefoldRepetitionDraws() {
+        GameLogic game = TestGames.quietGame();
+        game.setDrawRules(true, 0);
+
+        // An attacker and a defender step out and back twice, the starting position occurring a third time
+        for (int round = 0; round < 2; round++) {
+            assertTrue(game.move(Position.of(3, 0), Position.of(3, 1)));
+            assertTrue(game.move(Position.of(6, 4), Position.of(6, 3)));
+            assertTrue(game.move(Position.of(3, 1), Position.of(3, 0)));
+            assertTrue(game.move(Position.of(6, 3), Position.of(6, 4)));
+            assertEquals(round == 1, game.isGameFinished());
+        }
+        assertEquals(3, game.getRepetitions());
+        assertTrue(game.isDraw());
+        assertEquals(0, game.getFirstPlayer().getWins() + game.getSecondPlayer().getWins());
+
+        game.undoLastMove();
+        assertFalse(game.isGameFinished());
+        assertFalse(game.isDraw());
+        assertEquals(2, game.getRepetitions());
+        assertTrue(game.move(Position.of(6, 3), Position.of(6, 2)));
+        assertFalse(game.isGameFinished());
+    }
+
+    @Test
+    void repetitionWithoutTheRuleGoesOn() {
+        GameLogic game = TestGames.quietGame();
+        for (int round = 0; round < 2; round++) {
+            assertTrue(game.move(Position.of(3, 0), Position.of(3, 1)));
+            assertTrue(game.move(Position.of(6, 4), Position.of(6, 3)));
+            assertTrue(game.move(Position.of(3, 1), Position.of(3, 0)));
+            assertTrue(game.move(Position.of(6, 3), Position.of(6, 4)));
+        }
+        assertEquals(3, game.getRepetitions());
+        assertFalse(game.isGameFinished());
+    }
+
+    @Test
+    void plyLimitDraws() {
+        GameLogic game = TestGames.quietGame();
+        game.setDrawRules(false, 6);
+        TestGames.playRandomMoves(game, new Random(4), 5);
+        assertFalse(game.isGameFinished());
+
+        TestGames.playRandomMoves(game, new Random(5), 1);
+        assertEquals(6, game.getPly());
+        assertTrue(game.isGameFinished());
+        assertTrue(game.isDraw());
+
+        game.undoLastMove();
+        assertFalse(game.isGameFinished());
+        assertFalse(game.isDraw());
+        assertTrue(game.redoMove());
+        assertTrue(game.isDraw());
+    }
+
+    @Test
+    void snapshotRebuildsTheGameAndIgnoresLaterMoves() {
+        GameLogic game = TestGames.quietGame();
+        TestGames.playRandomMoves(game, new Random(6), 30);
+        GameSnapshot snapshot = game.snapshot();
+        assertEquals(30, snapshot.getPly());
+
+        Board board = new Board(snapshot);
+        assertEquals(game.getHash(), board.getHash());
+        assertEquals(game.isSecondPlayerTurn(), board.isAttackerTurn());
+        assertEquals(game.getHash(), new GameLogic(snapshot).getHash());
+
+        long hash = game.getHash();
+        boolean secondPlayerTurn = game.isSecondPlayerTurn();
+        byte[] squares = new byte[Board.SQUARES];
+        for (int square = 0; square < Board.SQUARES; square++) {
+            squares[square] = snapshot.pieceAt(square);
+            assertEquals(board.pieceAt(square), squares[square]);
+        }
+
+        TestGames.playRandomMoves(game, new Random(7), 11);
+        game.undoLastMove();
+        assertNotEquals(hash, game.getHash());
+
+        assertEquals(hash, snapshot.getHash());
+        assertEquals(secondPlayerTurn, snapshot.isSecondPlayerTurn());
+        assertEquals(30, snapshot.getPly());
+        for (int square = 0; square < Board.SQUARES; square++) {
+            assertEquals(squares[square], snapshot.pieceAt(square));
+        }
+        assertEquals(hash, new Board(snapshot).getHash());
+    }
+
+    @Test
+    void undoingACaptureRestoresStatistics() {
+        GameLogic game = TestGames.quietGame();
+        ConcretePiece attacker = game.getPieceAtPosition(Position.of(7, 0));
+        ConcretePiece defender = game.getPieceAtPosition(Position.of(6, 4));
+        assertTrue(game.move(Position.of(3, 0), Position.of(3, 1)));
+        // Takes the attacker on (6, 0) against the edge
+        assertTrue(game.move(Position.of(6, 4), Position.of(6, 1)));
+
+        // The defender ends up between two attackers
+        assertTrue(game.move(Position.of(7, 0), Position.of(7, 1)));
+        assertNull(game.getPieceAtPosition(Position.of(6, 1)));
+        assertStatistics(attacker, 1, 1, 2);
+
+        game.undoLastMove();
+        assertSame(defender, game.getPieceAtPosition(Position.of(6, 1)));
+        assertStatistics(attacker, 0, 0, 1);
+        assertStatistics(defender, 1, 3, 2);
+    }
+
+    @Test
+    void undoingARevisitRestoresStatistics() {
+        GameLogic game = TestGames.quietGame();
+        ConcretePiece attacker = game.getPieceAtPosition(Position.of(3, 0));
+        assertTrue(game.move(Position.of(3, 0), Position.of(3, 2)));
+        assertTrue(game.move(Position.of(6, 4), Position.of(6, 3)));
+
+        // Back to the starting square, which is not a new square
+        assertTrue(game.move(Position.of(3, 2), Position.of(3, 0)));
+        assertStatistics(attacker, 0, 4, 2);
+
+        game.undoLastMove();
+        assertStatistics(attacker, 0, 2, 2);
+        assertTrue(attacker.hasVisited(Position.of(3, 0)));
+
+        // Both squares are still known after the undo
+        assertTrue(game.move(Position.of(3, 2), Position.of(3, 1)));
+        assertStatistics(attacker, 0, 3, 3);
+        game.undoLastMove();
+        assertStatistics(attacker, 0, 2, 2);
+        assertFalse(attacker.hasVisited(Position.of(3, 1)));
+        game.undoLastMove();
+        game.undoLastMove();
+        assertStatistics(attacker, 0, 0, 1);
+        assertFalse(attacker.hasVisited(Position.of(3, 2)));
+    }
+
+    @Test
+    void incrementalHashMatchesARecomputation() {
+        GameLogic game = TestGames.quietGame();
+        Board board = new Board(game);
+        Random random = new Random(8);
+        assertEquals(recomputedHash(game), game.getHash());
+
+        // Moves with an undo now and then, a board following along with its own incremental hash
+        while (!game.isGameFinished()) {
+            TestGames.playRandomMoves(game, random, 1);
+            board.make(game.getMove(game.getPly() - 1));
+            assertEquals(recomputedHash(game), game.getHash(), "after ply " + game.getPly());
+            assertEquals(game.getHash(), board.getHash());
+
+            if (random.nextInt(4) == 0) {
+                game.undoLastMove();
+                board.unmake();
+                assertEquals(recomputedHash(game), game.getHash(), "after undoing to ply " + game.getPly());
+                assertEquals(game.getHash(), board.getHash());
+            }
+        }
+    }
+
+    @Test
+    void listenersHearChangesInOrder() {
+        GameLogic game = TestGames.quietGame();
+        List<String> events = new ArrayList<>();
+        game.addBoardListener(new EventLog(events));
+        assertTrue(game.move(Position.of(3, 0), Position.of(3, 1)));
+        assertTrue(game.move(Position.of(6, 4), Position.of(6, 1)));
+
+        events.clear();
+        assertTrue(game.move(Position.of(7, 0), Position.of(7, 1)));
+        assertEquals(List.of("moved A5 (7, 0) (7, 1)", "captured D4 (6, 1)", "turn false"), events);
+
+        events.clear();
+        game.undoLastMove();
+        assertEquals(List.of("turn true", "moved A5 (7, 1) (7, 0)", "restored D4 (6, 1)"), events);
+
+        events.clear();
+        assertTrue(game.redoMove());
+        assertEquals(List.of("moved A5 (7, 0) (7, 1)", "captured D4 (6, 1)", "turn false"), events);
+
+        events.clear();
+        game.reset();
+        assertEquals(List.of("reset"), events);
+    }
+
+    @Test
+    void listenersHearTheEndOfTheGame() {
+        GameLogic game = TestGames.quietGame();
+        List<String> events = new ArrayList<>();
+        game.addBoardListener(new EventLog(events));
+
+        // This game ends with the king escaping to a corner
+        Random random = new Random(1);
+        while (!game.isGameFinished()) {
+            events.clear();
+            TestGames.playRandomMoves(game, random, 1);
+        }
+        assertEquals(List.of("moved K7 (1, 10) (0, 10)", "finished defender"), events);
+
+        events.clear();
+        game.undoLastMove();
+        assertEquals(List.of("resumed", "moved K7 (0, 10) (1, 10)"), events);
+    }
+
+    @Test
+    void redoingTheEndReportsTheGameOnce() {
+        GameLogic game = new GameLogic();
+        List<String> events = new ArrayList<>();
+        int[] reports = new int[1];
+        game.setReportSink((winnerMoves, loserMoves, pieces, piecesPerSquare) -> reports[0]++);
+        game.addBoardListener(new EventLog(events));
+        TestGames.playRandomMoves(game, new Random(1), Integer.MAX_VALUE);
+        assertEquals(1, reports[0]);
+
+        // Listeners follow the board back and forth, the report was written when the game first ended
+        for (int round = 0; round < 2; round++) {
+            game.undoLastMove();
+            events.clear();
+            assertTrue(game.redoMove());
+            assertEquals(List.of("moved K7 (1, 10) (0, 10)", "finished defender"), events);
+            assertEquals(1, game.getFirstPlayer().getWins());
+        }
+        game.goToPly(0);
+        game.goToPly(game.getHistorySize());
+        assertTrue(game.isGameFinished());
+        assertEquals(1, reports[0]);
+    }
+
+    // Writes every change to a list as one line of text
+    private record EventLog(List<String> events) implements BoardListener {
+        @Override
+        public void pieceMoved(ConcretePiece piece, Position from, Position to) {
+            this.events.add("moved " + piece + " " + from + " " + to);
+        }
+
+        @Override
+        public void pieceCaptured(ConcretePiece piece, Position position) {
+            this.events.add("captured " + piece + " " + position);
+        }
+
+        @Override
+        public void pieceRestored(ConcretePiece piece, Position position) {
+            this.events.add("restored " + piece + " " + position);
+        }
+
+        @Override
+        public void turnChanged(boolean secondPlayerTurn) {
+            this.events.add("turn " + secondPlayerTurn);
+        }
+
+        @Override
+        public void gameFinished(Player winner) {
+            this.events.add("finished " + (winner == null ? "draw" : winner.isPlayerOne() ? "defender" : "attacker"));
+        }
+
+        @Override
+        public void gameResumed() {
+            this.events.add("resumed");
+        }
+
+        @Override
+        public void boardReset() {
+            this.events.add("reset");
+        }
+    }
+
+    private static long recomputedHash(GameLogic game) {
+        long hash = game.isSecondPlayerTurn() ? Zobrist.attackerTurn() : 0;
+        for (int x = 0; x < game.getBoardSize(); x++) {
+            for (int y = 0; y < game.getBoardSize(); y++) {
+                ConcretePiece piece = game.getPieceAtPosition(Position.of(x, y));
+                if (piece != null) {
+                    hash ^= Zobrist.piece(Board.pieceType(piece), PackedMove.square(x, y));
+                }
+            }
+        }
+
+        return hash;
+    }
+
+    private static void assertStatistics(ConcretePiece piece, int kills, int distance, int uniqueSquares) {
+        assertEquals(kills, piece.getKills(), piece + " kills");
+        assertEquals(distance, piece.distanceTravelled(), piece + " distance");
+        assertEquals(uniqueSquares, piece.getUniqueSquares(), piece + " unique squares");
+    }
+
+    /**
+     * @return The state of the game after every ply of a random game played to the end, the starting position first.
+     */
+    private static List<List<String>> playRandomGame(GameLogic game, Random random) {
+        List<List<String>> states = new ArrayList<>();
+        states.add(TestGames.state(game));
+        while (!game.isGameFinished()) {
+            TestGames.playRandomMoves(game, random, 1);
+            states.add(TestGames.state(game));
+        }
+
+        return states;
+    }
+
     private String readFile(File file) {
         StringBuilder content = new StringBuilder();
         try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
@@ -0,0 +1,212 @@
+import jdk.jfr.EventType;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts what the {@link GameLogic}s it is set on do: moves accepted and rejected by {@link MoveStatus}, captures,
+ * king captures, corner escapes, undos, and how long moves take. Every move and undo is also a {@link MoveEvent} or
+ * {@link UndoEvent} for Flight Recorder, only built while a recording has them enabled.
+ * One instance can be shared by any number of games on any number of threads, counters are striped to avoid contention.
+ * A game without metrics pays a single null check per move.
+ */
+public final class GameMetrics {
+    // Bucket i counts the moves taking [2^i, 2^(i+1)) nanoseconds
+    public static final int LATENCY_BUCKETS = 40;
+
+    // Moves by how many pieces they captured, at most one per direction
+    private static final int MAX_CAPTURES = 4;
+
+    private static final MoveStatus[] STATUSES = MoveStatus.values();
+
+    // Checked before building an event, so moves allocate nothing while no recording wants them
+    private static final EventType MOVE_EVENT = EventType.getEventType(MoveEvent.class);
+    private static final EventType UNDO_EVENT = EventType.getEventType(UndoEvent.class);
+
+    private final LongAdder[] moves;
+    private final LongAdder[] movesByCaptures;
+    private final LongAdder captures, kingCaptures, cornerEscapes, undos;
+    private final LongAdder[] latency;
+
+    public GameMetrics() {
+        this.moves = newAdders(STATUSES.length);
+        this.movesByCaptures = newAdders(MAX_CAPTURES + 1);
+        this.captures = new LongAdder();
+        this.kingCaptures = new LongAdder();
+        this.cornerEscapes = new LongAdder();
+        this.undos = new LongAdder();
+        this.latency = newAdders(LATENCY_BUCKETS);
+    }
+
+    private static LongAdder[] newAdders(int count) {
+        LongAdder[] adders = new LongAdder[count];
+        for (int i = 0; i < count; i++) {
+            adders[i] = new LongAdder();
+        }
+
+        return adders;
+    }
+
+    void moveAccepted(int from, int to, int captures, boolean kingCaptured, boolean cornerEscape, long nanos) {
+        this.moves[MoveStatus.OK.ordinal()].increment();
+        this.movesByCaptures[captures].increment();
+        this.captures.add(captures);
+        if (kingCaptured) {
+            this.kingCaptures.increment();
+        }
+        if (cornerEscape) {
+            this.cornerEscapes.increment();
+        }
+        this.latency[bucket(nanos)].increment();
+
+        if (MOVE_EVENT.isEnabled()) {
+            MoveEvent event = new MoveEvent();
+            event.from = from;
+            event.to = to;
+            event.status = MoveStatus.OK.name();
+            event.captures = captures;
+            event.kingCaptured = kingCaptured;
+            event.cornerEscape = cornerEscape;
+            event.moveTime = nanos;
+            event.commit();
+        }
+    }
+
+    void moveRejected(int from, int to, MoveStatus status, long nanos) {
+        this.moves[status.ordinal()].increment();
+        this.latency[bucket(nanos)].increment();
+
+        if (MOVE_EVENT.isEnabled()) {
+            MoveEvent event = new MoveEvent();
+            event.from = from;
+            event.to = to;
+            event.status = status.name();
+            event.moveTime = nanos;
+            event.commit();
+        }
+    }
+
+    void moveUndone(int ply) {
+        this.undos.increment();
+
+        if (UNDO_EVENT.isEnabled()) {
+            UndoEvent event = new UndoEvent();
+            event.ply = ply;
+            event.commit();
+        }
+    }
+
+    private static int bucket(long nanos) {
+        return Math.min(LATENCY_BUCKETS - 1, 63 - Long.numberOfLeadingZeros(Math.max(1, nanos)));
+    }
+
+    public long getAccepted() {
+        return this.moves[MoveStatus.OK.ordinal()].sum();
+    }
+
+    /**
+     * @return The moves rejected for this reason, or accepted for {@link MoveStatus#OK}.
+     */
+    public long getMoves(MoveStatus status) {
+        return this.moves[status.ordinal()].sum();
+    }
+
+    public long getRejected() {
+        long rejected = 0;
+        for (MoveStatus status : STATUSES) {
+            if (status != MoveStatus.OK) {
+                rejected += this.moves[status.ordinal()].sum();
+            }
+        }
+
+        return rejected;
+    }
+
+    /**
+     * @return The accepted moves that captured this many pieces, the king included.
+     */
+    public long getMovesWithCaptures(int captures) {
+        return this.movesByCaptures[captures].sum();
+    }
+
+    public long getCaptures() {
+        return this.captures.sum();
+    }
+
+    public long getKingCaptures() {
+        return this.kingCaptures.sum();
+    }
+
+    public long getCornerEscapes() {
+        return this.cornerEscapes.sum();
+    }
+
+    public long getUndos() {
+        return this.undos.sum();
+    }
+
+    /**
+     * @return The moves, accepted or not, that took between 2^bucket and 2^(bucket+1) nanoseconds.
+     */
+    public long getLatencyCount(int bucket) {
+        return this.latency[bucket].sum();
+    }
+
+    /**
+     * @param fraction Between 0 and 1, 0.99 for the 99th percentile.
+     * @return An upper bound on the time taken by this fraction of the moves, in nanoseconds, 0 if no move was counted.
+     */
+    public long getLatencyPercentile(double fraction) {
+        long total = 0;
+        for (LongAdder bucket : this.latency) {
+            total += bucket.sum();
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        long seen = 0;
+        for (int bucket = 0; bucket < LATENCY_BUCKETS; bucket++) {
+            seen += this.latency[bucket].sum();
+            if (seen >= fraction * total) {
+                return 2L << bucket;
+            }
+        }
+
+        return Long.MAX_VALUE;
+    }
+
+    public void reset() {
+        for (LongAdder adder : this.moves) {
+            adder.reset();
+        }
+        for (LongAdder adder : this.movesByCaptures) {
+            adder.reset();
+        }
+        this.captures.reset();
+        this.kingCaptures.reset();
+        this.cornerEscapes.reset();
+        this.undos.reset();
+        for (LongAdder adder : this.latency) {
+            adder.reset();
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("accepted=").append(this.getAccepted());
+        for (MoveStatus status : STATUSES) {
+            if (status != MoveStatus.OK) {
+                builder.append(' ').append(status.name().toLowerCase()).append('=').append(this.getMoves(status));
+            }
+        }
+        builder.append(" captures=").append(this.getCaptures())
+                .append(" kingCaptures=").append(this.getKingCaptures())
+                .append(" cornerEscapes=").append(this.getCornerEscapes())
+                .append(" undos=").append(this.getUndos())
+                .append(" p50=").append(this.getLatencyPercentile(0.5)).append("ns")
+                .append(" p99=").append(this.getLatencyPercentile(0.99)).append("ns");
+
+        return builder.toString();
+    }
+}
@@ -0,0 +1,103 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameMetricsTest {
+    @Test
+    void countsMovesByStatus() {
+        GameMetrics metrics = new GameMetrics();
+        GameLogic game = meteredGame(metrics);
+
+        assertFalse(game.move(Position.of(3, 0), Position.of(3, 11)));
+        assertFalse(game.move(Position.of(3, 0), Position.of(4, 1)));
+        assertFalse(game.move(Position.of(2, 2), Position.of(2, 3)));
+        assertFalse(game.move(Position.of(5, 3), Position.of(5, 2)));
+        assertFalse(game.move(Position.of(3, 0), Position.of(3, 10)));
+        // The path to the corner is clear, but only the king may stop there
+        assertFalse(game.move(Position.of(3, 0), Position.of(0, 0)));
+        assertTrue(game.move(Position.of(3, 0), Position.of(3, 1)));
+
+        for (MoveStatus status : MoveStatus.values()) {
+            assertEquals(status == MoveStatus.GAME_FINISHED ? 0 : 1, metrics.getMoves(status), status.name());
+        }
+        assertEquals(1, metrics.getAccepted());
+        assertEquals(MoveStatus.values().length - 2, metrics.getRejected());
+        assertEquals(1, metrics.getMovesWithCaptures(0));
+        assertEquals(0, metrics.getCaptures());
+    }
+
+    @Test
+    void countsMovesAfterTheEnd() {
+        GameMetrics metrics = new GameMetrics();
+        GameLogic game = meteredGame(metrics);
+        TestGames.playRandomMoves(game, new Random(6), Integer.MAX_VALUE);
+        int plies = game.getPly();
+
+        // The last move still stands, but nothing can follow it
+        int last = game.getMove(game.getPly() - 1);
+        assertFalse(game.move(PackedMove.toPosition(PackedMove.to(last)), PackedMove.toPosition(PackedMove.from(last))));
+        assertEquals(plies, metrics.getAccepted());
+        assertEquals(1, metrics.getMoves(MoveStatus.GAME_FINISHED));
+    }
+
+    @Test
+    void countsCapturesAndUndos() {
+        GameMetrics metrics = new GameMetrics();
+        GameLogic game = meteredGame(metrics);
+        assertTrue(game.move(Position.of(3, 0), Position.of(3, 1)));
+        // Takes the attacker on (6, 0) against the edge, then the defender is taken in turn
+        assertTrue(game.move(Position.of(6, 4), Position.of(6, 1)));
+        assertTrue(game.move(Position.of(7, 0), Position.of(7, 1)));
+        game.undoLastMove();
+        game.undoLastMove();
+
+        assertEquals(3, metrics.getAccepted());
+        assertEquals(1, metrics.getMovesWithCaptures(0));
+        assertEquals(2, metrics.getMovesWithCaptures(1));
+        assertEquals(2, metrics.getCaptures());
+        assertEquals(0, metrics.getKingCaptures());
+        assertEquals(0, metrics.getCornerEscapes());
+
+        // Counters are not taken back with the moves
+        assertEquals(2, metrics.getUndos());
+    }
+
+    @Test
+    void sharedByGamesAndReset() {
+        GameMetrics metrics = new GameMetrics();
+        GameLogic first = meteredGame(metrics), second = meteredGame(metrics);
+        assertTrue(first.move(Position.of(3, 0), Position.of(3, 1)));
+        assertTrue(second.move(Position.of(3, 0), Position.of(3, 2)));
+        assertFalse(second.move(Position.of(3, 2), Position.of(3, 3)));
+
+        assertEquals(2, metrics.getAccepted());
+        assertEquals(1, metrics.getMoves(MoveStatus.WRONG_TURN));
+        long timed = 0;
+        for (int bucket = 0; bucket < GameMetrics.LATENCY_BUCKETS; bucket++) {
+            timed += metrics.getLatencyCount(bucket);
+        }
+        assertEquals(3, timed);
+        assertTrue(metrics.getLatencyPercentile(0.5) > 0);
+        assertTrue(metrics.getLatencyPercentile(0.5) <= metrics.getLatencyPercentile(1));
+        assertTrue(metrics.toString().startsWith("accepted=2 "), metrics.toString());
+
+        metrics.reset();
+        assertEquals(0, metrics.getAccepted());
+        assertEquals(0, metrics.getRejected());
+        assertEquals(0, metrics.getMovesWithCaptures(0));
+        assertEquals(0, metrics.getLatencyPercentile(0.5));
+
+        // The games keep counting into the same metrics
+        assertTrue(first.move(Position.of(6, 4), Position.of(6, 3)));
+        assertEquals(1, metrics.getAccepted());
+        assertTrue(metrics.getLatencyPercentile(1) > 0);
+    }
+
+    private static GameLogic meteredGame(GameMetrics metrics) {
+        GameLogic game = TestGames.quietGame();
+        game.setMetrics(metrics);
+        return game;
+    }
+}
@@ -0,0 +1,42 @@
+/**
+ * Wire format spoken by {@link GameServer} and {@link GameClient}.
+ * Every frame is a 2 byte big-endian length, then that many bytes: a type byte and its payload.
+ * The server answers every request with one frame of the same type, or {@link #ERROR}, in the order the requests came,
+ * so a client may send many requests before reading the answers.
+ * <ul>
+ *     <li>{@link #CREATE}: no payload, starts a game and joins it. Answer: the game id as a long</li>
+ *     <li>{@link #JOIN}: a game id as a long. Answer: the same id</li>
+ *     <li>{@link #MOVES}: up to {@link #MAX_BATCH} moves of 2 bytes, from square then to square. Answer: 1 byte per move, 1 if it was played</li>
+ *     <li>{@link #UNDO}, {@link #RESET}: no payload. Answer: no payload</li>
+ *     <li>{@link #STATE}: no payload. Answer: {@link Board#SQUARES} square codes as in {@link GameSnapshot}, a byte of
+ *         {@link #SECOND_PLAYER_TURN}, {@link #FINISHED} and {@link #DRAW} flags, the ply as an int and the hash as a long</li>
+ *     <li>{@link #WINS}: no payload. Answer: the wins of the first and the second player as ints</li>
+ *     <li>{@link #ERROR}: answer only, one of the error codes</li>
+ * </ul>
+ * Squares are indexed as in {@link PackedMove}. A malformed frame closes the connection.
+ */
+public final class GameProtocol {
+    public static final byte CREATE = 1;
+    public static final byte JOIN = 2;
+    public static final byte MOVES = 3;
+    public static final byte UNDO = 4;
+    public static final byte RESET = 5;
+    public static final byte STATE = 6;
+    public static final byte WINS = 7;
+    public static final byte ERROR = 127;
+
+    // Error codes
+    public static final byte NO_GAME = 1;
+
+    // State flags
+    public static final int SECOND_PLAYER_TURN = 1;
+    public static final int FINISHED = 2;
+    public static final int DRAW = 4;
+
+    public static final int MAX_BATCH = 255;
+    public static final int HEADER_BYTES = 2;
+    public static final int MAX_FRAME = 1 + 2 * MAX_BATCH;
+    static final int STATE_BYTES = Board.SQUARES + 1 + 4 + 8;
+
+    private GameProtocol() {}
+}
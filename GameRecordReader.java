@@ -0,0 +1,121 @@
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Streams games back from an archive written by {@link GameRecordWriter}, one record at a time.
+ * Records are only ever held as raw bytes, {@link #replay()} plays them through the rules on a reused {@link Board}.
+ */
+public class GameRecordReader implements AutoCloseable {
+    private final InputStream in;
+    private final Board start, board;
+    private byte[] buffer;
+    private int result, plies;
+
+    public GameRecordReader(InputStream in) throws IOException {
+        this.in = in instanceof BufferedInputStream ? in : new BufferedInputStream(in);
+        this.start = new Board(new GameLogic());
+        this.board = new Board(this.start);
+        this.buffer = new byte[256];
+
+        this.readFully(5);
+        if (this.getInt(0) != GameRecordWriter.MAGIC) {
+            throw new IOException("Not a game record archive");
+        }
+        if (this.buffer[4] < 1 || this.buffer[4] > GameRecordWriter.VERSION) {
+            throw new IOException("Unsupported game record version " + this.buffer[4]);
+        }
+    }
+
+    /**
+     * Read the next record.
+     *
+     * @return False once the archive is exhausted.
+     */
+    public boolean next() throws IOException {
+        // A clean end of archive falls between records
+        int first = this.in.read();
+        if (first < 0) {
+            return false;
+        }
+
+        this.readFully(GameRecordWriter.HEADER_BYTES - 1);
+        this.result = first;
+        this.plies = this.getInt(0);
+        if (this.result > Board.DRAW || this.plies < 0 || this.plies > GameRecordWriter.MAX_PLIES) {
+            throw new IOException("Corrupt game record header");
+        }
+
+        this.readFully(2 * this.plies);
+        return true;
+    }
+
+    /**
+     * @return The result of the current record, one of {@link Board#ONGOING}, {@link Board#ATTACKER_WON}, {@link Board#DEFENDER_WON}
+     *         or {@link Board#DRAW}.
+     */
+    public int getResult() {
+        return this.result;
+    }
+
+    public int getPlies() {
+        return this.plies;
+    }
+
+    /**
+     * @return The ply of the current record as a {@link PackedMove}, without captures.
+     */
+    public int getMove(int ply) {
+        if (ply >= this.plies) {
+            throw new IndexOutOfBoundsException(ply);
+        }
+
+        return PackedMove.of(this.buffer[2 * ply] & 0xFF, this.buffer[2 * ply + 1] & 0xFF);
+    }
+
+    /**
+     * Play the current record from the starting position, checking every ply and the stored result.
+     * A draw is only checked to leave the game undecided, the rules that ended it are not known here.
+     *
+     * @return The final position, reused by the next call.
+     * @throws IOException If the record does not follow the rules.
+     */
+    public Board replay() throws IOException {
+        this.board.copyFrom(this.start);
+        for (int ply = 0; ply < this.plies; ply++) {
+            int move = this.getMove(ply);
+            if (!this.board.isLegal(move)) {
+                throw new IOException("Illegal move " + PackedMove.toString(move) + " at ply " + ply);
+            }
+            this.board.make(move);
+        }
+
+        if (this.board.getResult() != GameRecordWriter.boardResult(this.result)) {
+            throw new IOException("Game record result " + this.result + " does not match replayed result " + this.board.getResult());
+        }
+
+        return this.board;
+    }
+
+    private void readFully(int length) throws IOException {
+        if (this.buffer.length < length) {
+            this.buffer = Arrays.copyOf(this.buffer, Math.max(length, this.buffer.length * 2));
+        }
+
+        int read = this.in.readNBytes(this.buffer, 0, length);
+        if (read < length) {
+            throw new EOFException("Truncated game record");
+        }
+    }
+
+    private int getInt(int offset) {
+        return (this.buffer[offset] & 0xFF) << 24 | (this.buffer[offset + 1] & 0xFF) << 16 | (this.buffer[offset + 2] & 0xFF) << 8 | (this.buffer[offset + 3] & 0xFF);
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.in.close();
+    }
+}
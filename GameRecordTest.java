@@ -0,0 +1,195 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameRecordTest {
+    @Test
+    void finishedGameRejectsMovesAndIsWrittenOnce() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        GameRecordWriter writer = new GameRecordWriter(out);
+        GameLogic game = recordedGame(writer);
+        TestGames.playRandomMoves(game, new Random(3), Integer.MAX_VALUE);
+        assertTrue(game.isGameFinished());
+        List<Integer> finished = moves(game);
+
+        // Once the game is over no piece moves, so nothing can follow the end in the archive
+        Position king = null;
+        for (int square = 0; square < Board.SQUARES && king == null; square++) {
+            if (game.getPieceAtPosition(PackedMove.toPosition(square)) instanceof King) {
+                king = PackedMove.toPosition(square);
+            }
+        }
+        Position beside = Position.of(king.x(), king.y() == 0 ? 1 : king.y() - 1);
+        assertEquals(MoveStatus.GAME_FINISHED, game.checkMove(king, beside).status());
+        assertFalse(game.move(king, beside));
+        assertFalse(playAnyMove(game));
+        assertEquals(finished, moves(game));
+
+        // The finished game was written when it ended, the reset does not write it again
+        game.reset();
+
+        assertEquals(List.of(finished), readAll(writer, out));
+    }
+
+    @Test
+    void redoingTheEndWritesTheGameOnce() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        GameRecordWriter writer = new GameRecordWriter(out);
+        GameLogic game = recordedGame(writer);
+        TestGames.playRandomMoves(game, new Random(4), Integer.MAX_VALUE);
+        List<Integer> finished = moves(game);
+
+        game.undoLastMove();
+        game.undoLastMove();
+        assertTrue(game.redoMove());
+        assertTrue(game.redoMove());
+        assertTrue(game.isGameFinished());
+
+        // Taken back short of the end, still the start of the archived game
+        game.undoLastMove();
+        game.reset();
+
+        assertEquals(List.of(finished), readAll(writer, out));
+    }
+
+    @Test
+    void bothEndingsAndUnfinishedGamesAreWritten() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        GameRecordWriter writer = new GameRecordWriter(out);
+        GameLogic game = recordedGame(writer);
+        Random random = new Random(5);
+        TestGames.playRandomMoves(game, random, Integer.MAX_VALUE);
+        List<Integer> first = moves(game);
+
+        // Take back the end and play on differently until the game ends again
+        List<Integer> second;
+        do {
+            game.goToPly(Math.max(0, first.size() - 6));
+            TestGames.playRandomMoves(game, random, Integer.MAX_VALUE);
+            second = moves(game);
+        } while (second.equals(first));
+
+        // A game reset before its end is written as unfinished
+        game.reset();
+        TestGames.playRandomMoves(game, random, 30);
+        game.undoLastMove();
+        List<Integer> unfinished = moves(game);
+        game.reset();
+
+        // An empty game is not written
+        game.reset();
+
+        List<List<Integer>> records = readAll(writer, out);
+        assertEquals(List.of(first, second, unfinished), records);
+    }
+
+    @Test
+    void drawsAreWrittenAsDraws() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        GameRecordWriter writer = new GameRecordWriter(out);
+        GameLogic game = recordedGame(writer);
+
+        // A threefold repetition, then a game stopped by the ply limit, then one reset before its end
+        game.setDrawRules(true, 0);
+        for (int round = 0; round < 2; round++) {
+            assertTrue(game.move(Position.of(3, 0), Position.of(3, 1)));
+            assertTrue(game.move(Position.of(6, 4), Position.of(6, 3)));
+            assertTrue(game.move(Position.of(3, 1), Position.of(3, 0)));
+            assertTrue(game.move(Position.of(6, 3), Position.of(6, 4)));
+        }
+        assertTrue(game.isDraw());
+        List<Integer> repeated = moves(game);
+        game.reset();
+        game.setDrawRules(false, 6);
+        TestGames.playRandomMoves(game, new Random(6), Integer.MAX_VALUE);
+        assertTrue(game.isDraw());
+        List<Integer> limited = moves(game);
+        game.reset();
+        TestGames.playRandomMoves(game, new Random(7), 3);
+        List<Integer> unfinished = moves(game);
+        game.reset();
+
+        assertEquals(List.of(repeated, limited, unfinished), readAll(writer, out));
+        List<Integer> results = new ArrayList<>();
+        try (GameRecordReader reader = new GameRecordReader(new ByteArrayInputStream(out.toByteArray()))) {
+            while (reader.next()) {
+                results.add(reader.getResult());
+            }
+        }
+        assertEquals(List.of(Board.DRAW, Board.DRAW, Board.ONGOING), results);
+    }
+
+    @Test
+    void readsOlderVersionsAndRejectsUnknownResults() throws IOException {
+        byte[] archive = {0x54, 0x41, 0x46, 0x4C, 1, Board.ONGOING, 0, 0, 0, 0};
+        try (GameRecordReader reader = new GameRecordReader(new ByteArrayInputStream(archive))) {
+            assertTrue(reader.next());
+            assertEquals(Board.ONGOING, reader.getResult());
+            assertFalse(reader.next());
+        }
+
+        archive[4] = GameRecordWriter.VERSION;
+        archive[5] = Board.DRAW + 1;
+        try (GameRecordReader reader = new GameRecordReader(new ByteArrayInputStream(archive))) {
+            assertThrows(IOException.class, reader::next);
+        }
+
+        archive[4] = GameRecordWriter.VERSION + 1;
+        assertThrows(IOException.class, () -> new GameRecordReader(new ByteArrayInputStream(archive)));
+    }
+
+    // A game archiving every game it plays, without printing its reports
+    private static GameLogic recordedGame(GameRecordWriter writer) {
+        GameLogic game = TestGames.quietGame();
+        game.setRecordWriter(writer);
+        return game;
+    }
+
+    // Read every record back, replaying each to check it follows the rules and matches its stored result
+    private static List<List<Integer>> readAll(GameRecordWriter writer, ByteArrayOutputStream out) throws IOException {
+        writer.flush();
+        List<List<Integer>> records = new ArrayList<>();
+        try (GameRecordReader reader = new GameRecordReader(new ByteArrayInputStream(out.toByteArray()))) {
+            while (reader.next()) {
+                List<Integer> record = new ArrayList<>();
+                for (int ply = 0; ply < reader.getPlies(); ply++) {
+                    record.add(reader.getMove(ply));
+                }
+                Board board = reader.replay();
+                assertEquals(GameRecordWriter.boardResult(reader.getResult()), board.getResult());
+                records.add(record);
+            }
+        }
+
+        return records;
+    }
+
+    private static List<Integer> moves(GameLogic game) {
+        List<Integer> moves = new ArrayList<>();
+        for (int ply = 0; ply < game.getPly(); ply++) {
+            moves.add(game.getMove(ply));
+        }
+
+        return moves;
+    }
+
+    // Play the first move the rules accept, which works even once the game has ended
+    private static boolean playAnyMove(GameLogic game) {
+        for (int from = 0; from < Board.SQUARES; from++) {
+            for (int to = 0; to < Board.SQUARES; to++) {
+                if (game.checkMove(PackedMove.toPosition(from), PackedMove.toPosition(to)).isLegal()) {
+                    return game.move(PackedMove.toPosition(from), PackedMove.toPosition(to));
+                }
+            }
+        }
+
+        return false;
+    }
+}
@@ -0,0 +1,164 @@
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+/**
+ * Streams games to a compact binary archive.
+ * The archive starts with {@link #MAGIC} and {@link #VERSION}, then holds one record per game:
+ * <ul>
+ *     <li>1 byte for the result, one of {@link Board#ONGOING} for an unfinished game, {@link Board#ATTACKER_WON},
+ *     {@link Board#DEFENDER_WON} or {@link Board#DRAW}</li>
+ *     <li>4 bytes for the number of plies, big-endian</li>
+ *     <li>2 bytes per ply, the origin and destination squares numbered as in {@link PackedMove}</li>
+ * </ul>
+ * Attach it with {@link GameLogic#setRecordWriter(GameRecordWriter)} to archive every game played, and read it back
+ * with {@link GameRecordReader}.
+ */
+public class GameRecordWriter implements AutoCloseable {
+    static final int MAGIC = 0x5441464C; // "TAFL"
+    // Version 2 added draws, version 1 archives stored them as unfinished games and are still read
+    static final int VERSION = 2;
+    static final int HEADER_BYTES = 5;
+
+    // Longest game a record may hold, so a corrupt header cannot make a reader allocate gigabytes
+    static final int MAX_PLIES = 1 << 20;
+
+    private final OutputStream out;
+    private final MoveList pending;
+    private byte[] buffer;
+
+    // The last game written by gameFinished(), and how many leading plies of the game in progress match it.
+    // A game in progress that is still a prefix of it, such as a finished game taken back and redone, is not written again
+    private final MoveList archived;
+    private int matched;
+
+    /**
+     * @return The result a {@link Board} shows after replaying a game stored with the given result.
+     */
+    static int boardResult(int result) {
+        return result == Board.DRAW ? Board.ONGOING : result;
+    }
+
+    public GameRecordWriter(OutputStream out) {
+        this.out = out instanceof BufferedOutputStream ? out : new BufferedOutputStream(out);
+        this.pending = new MoveList();
+        this.archived = new MoveList();
+        this.buffer = new byte[256];
+
+        this.putInt(0, MAGIC);
+        this.buffer[4] = (byte) VERSION;
+        this.write(5);
+    }
+
+    /**
+     * Add a ply to the game in progress.
+     */
+    public void moveMade(int from, int to) {
+        int move = PackedMove.of(from, to);
+        if (this.matched == this.pending.size() && this.matched < this.archived.size() && this.archived.get(this.matched) == move) {
+            this.matched++;
+        }
+        this.pending.add(move);
+    }
+
+    /**
+     * Drop the last ply of the game in progress, if any. Games already written are left alone,
+     * so taking back the end of a game and finishing it differently archives both endings.
+     */
+    public void moveUndone() {
+        if (!this.pending.isEmpty()) {
+            if (this.matched == this.pending.size()) {
+                this.matched--;
+            }
+            this.pending.removeLast();
+        }
+    }
+
+    /**
+     * Write the game in progress with its result, unless this very game was already written.
+     * Its plies are kept until {@link #gameReset()}, in case moves are taken back.
+     */
+    public void gameFinished(int result) {
+        if (this.isArchived() && this.pending.size() == this.archived.size()) {
+            return;
+        }
+
+        this.writeGame(result, this.pending);
+        this.archived.copyFrom(this.pending);
+        this.matched = this.pending.size();
+    }
+
+    /**
+     * Write the game in progress as unfinished, unless it is empty or the start of a game already written, and start a new one.
+     */
+    public void gameReset() {
+        if (!this.pending.isEmpty() && !this.isArchived()) {
+            this.writeGame(Board.ONGOING, this.pending);
+        }
+        this.pending.clear();
+        this.archived.clear();
+        this.matched = 0;
+    }
+
+    // Whether every ply of the game in progress follows the last game written
+    private boolean isArchived() {
+        return !this.archived.isEmpty() && this.matched == this.pending.size();
+    }
+
+    /**
+     * Write a whole game at once, such as the history of a {@link Board}.
+     *
+     * @param moves Packed moves, captures and flags are ignored. At most {@link #MAX_PLIES} of them.
+     */
+    public void writeGame(int result, MoveList moves) {
+        if (moves.size() > MAX_PLIES) {
+            throw new IllegalArgumentException("Game of " + moves.size() + " plies is longer than " + MAX_PLIES);
+        }
+
+        int length = HEADER_BYTES + 2 * moves.size();
+        if (this.buffer.length < length) {
+            this.buffer = Arrays.copyOf(this.buffer, Math.max(length, this.buffer.length * 2));
+        }
+
+        this.buffer[0] = (byte) result;
+        this.putInt(1, moves.size());
+        for (int i = 0, offset = HEADER_BYTES; i < moves.size(); i++, offset += 2) {
+            this.buffer[offset] = (byte) PackedMove.from(moves.get(i));
+            this.buffer[offset + 1] = (byte) PackedMove.to(moves.get(i));
+        }
+        this.write(length);
+    }
+
+    private void putInt(int offset, int value) {
+        this.buffer[offset] = (byte) (value >>> 24);
+        this.buffer[offset + 1] = (byte) (value >>> 16);
+        this.buffer[offset + 2] = (byte) (value >>> 8);
+        this.buffer[offset + 3] = (byte) value;
+    }
+
+    private void write(int length) {
+        try {
+            this.out.write(this.buffer, 0, length);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write game record", e);
+        }
+    }
+
+    public void flush() {
+        try {
+            this.out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write game record", e);
+        }
+    }
+
+    /**
+     * Flush and close the underlying stream. A game still in progress is not written.
+     */
+    @Override
+    public void close() throws IOException {
+        this.out.close();
+    }
+}
@@ -0,0 +1,19 @@
+import java.util.List;
+
+/**
+ * Receives the end of game report of a {@link GameLogic}.
+ * Implementations decide how much of the report to build, a sink that ignores it costs nothing.
+ */
+public interface GameReportSink {
+
+    /**
+     * Called once when a game ends, after the winner has been credited.
+     * The collections belong to the game and must not be modified or kept.
+     *
+     * @param winnerMoves     Moves of the winning player, oldest first.
+     * @param loserMoves      Moves of the losing player, oldest first.
+     * @param pieces          Pieces still on the board.
+     * @param piecesPerSquare Number of different pieces that have stood on each square, indexed by {@link PackedMove#square}.
+     */
+    void gameFinished(List<Move> winnerMoves, List<Move> loserMoves, List<ConcretePiece> pieces, int[] piecesPerSquare);
+}
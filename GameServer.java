@@ -0,0 +1,311 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Serves the games of a {@link SessionManager} over TCP with the {@link GameProtocol} wire format.
+ * One thread runs a selector over every connection, reads whole frames, plays them and queues the answers,
+ * so thousands of clients need no thread each. Each connection plays one game at a time, the one it created or joined,
+ * and several connections may share a game. The same thread sweeps the manager every {@link #SWEEP_MILLIS}.
+ */
+public class GameServer implements AutoCloseable {
+    public static final int DEFAULT_PORT = 7171;
+    static final long SWEEP_MILLIS = 1000;
+
+    // A connection whose answers pile up beyond this is not read until its client catches up
+    private static final int OUTPUT_LIMIT = 64 * 1024;
+
+    private final SessionManager manager;
+    private final Selector selector;
+    private final ServerSocketChannel server;
+    private final Thread thread;
+    private volatile boolean running;
+
+    /**
+     * Bind the address and start serving on a new thread.
+     *
+     * @param address Port 0 picks a free port, see {@link #getPort()}.
+     */
+    public GameServer(SessionManager manager, InetSocketAddress address) throws IOException {
+        this.manager = manager;
+        this.selector = Selector.open();
+        this.server = ServerSocketChannel.open();
+        this.server.bind(address, 1024);
+        this.server.configureBlocking(false);
+        this.server.register(this.selector, SelectionKey.OP_ACCEPT);
+
+        this.running = true;
+        this.thread = new Thread(this::serve, "game-server");
+        this.thread.start();
+    }
+
+    public int getPort() {
+        return this.server.socket().getLocalPort();
+    }
+
+    private void serve() {
+        long nextSweep = System.currentTimeMillis() + SWEEP_MILLIS;
+        try {
+            while (this.running) {
+                this.selector.select(SWEEP_MILLIS);
+                Iterator<SelectionKey> keys = this.selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+
+                    if (key.isAcceptable()) {
+                        this.accept();
+                        continue;
+                    }
+
+                    Connection connection = (Connection) key.attachment();
+                    try {
+                        if (key.isWritable()) {
+                            connection.write();
+                        }
+                        if (key.isValid() && key.isReadable()) {
+                            connection.read();
+                        }
+                    } catch (IOException e) {
+                        // The client went away or broke the protocol, only its connection is affected
+                        connection.close();
+                    }
+                }
+
+                if (System.currentTimeMillis() >= nextSweep) {
+                    this.manager.sweep();
+                    nextSweep = System.currentTimeMillis() + SWEEP_MILLIS;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            for (SelectionKey key : this.selector.keys()) {
+                try {
+                    key.channel().close();
+                } catch (IOException ignored) {
+                    // Closing anyway
+                }
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = this.server.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            SelectionKey key = channel.register(this.selector, SelectionKey.OP_READ);
+            key.attach(new Connection(channel, key));
+        }
+    }
+
+    /**
+     * Stop serving and close every connection. Games stay in the manager.
+     */
+    @Override
+    public void close() throws IOException {
+        this.running = false;
+        this.selector.wakeup();
+        try {
+            this.thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        this.selector.close();
+    }
+
+    private final class Connection {
+        private final SocketChannel channel;
+        private final SelectionKey key;
+        private final ByteBuffer in;
+        private ByteBuffer out;
+
+        // Game played by this connection, 0 before creating or joining one
+        private long game;
+
+        Connection(SocketChannel channel, SelectionKey key) {
+            this.channel = channel;
+            this.key = key;
+            this.in = ByteBuffer.allocate(GameProtocol.HEADER_BYTES + GameProtocol.MAX_FRAME);
+            this.out = ByteBuffer.allocate(1024);
+        }
+
+        void read() throws IOException {
+            if (this.channel.read(this.in) < 0) {
+                this.close();
+                return;
+            }
+
+            this.handleFrames();
+            this.write();
+        }
+
+        void write() throws IOException {
+            while (true) {
+                this.out.flip();
+                this.channel.write(this.out);
+                this.out.compact();
+
+                // Wait for the client to take the rest of the answers before reading more requests
+                if (this.out.position() > 0) {
+                    this.key.interestOps(SelectionKey.OP_WRITE);
+                    return;
+                }
+                this.key.interestOps(SelectionKey.OP_READ);
+
+                // Play the requests held back by the output limit
+                this.handleFrames();
+                if (this.out.position() == 0) {
+                    return;
+                }
+            }
+        }
+
+        void close() {
+            this.key.cancel();
+            try {
+                this.channel.close();
+            } catch (IOException ignored) {
+                // Already gone
+            }
+        }
+
+        // Play every complete frame received, as long as the answers fit under the output limit
+        private void handleFrames() throws IOException {
+            this.in.flip();
+            while (this.in.remaining() >= GameProtocol.HEADER_BYTES && this.out.position() < OUTPUT_LIMIT) {
+                int length = this.in.getShort(this.in.position()) & 0xFFFF;
+                if (length == 0 || length > GameProtocol.MAX_FRAME) {
+                    throw new IOException("Bad frame length " + length);
+                }
+                if (this.in.remaining() < GameProtocol.HEADER_BYTES + length) {
+                    break;
+                }
+
+                int end = this.in.position() + GameProtocol.HEADER_BYTES + length;
+                this.in.position(this.in.position() + GameProtocol.HEADER_BYTES);
+                this.handleFrame(this.in.get(), length - 1);
+                this.in.position(end);
+            }
+            this.in.compact();
+        }
+
+        private void handleFrame(byte type, int payload) throws IOException {
+            this.reserve(GameProtocol.HEADER_BYTES + 1 + Math.max(GameProtocol.STATE_BYTES, payload));
+            int start = this.out.position();
+            this.out.position(start + GameProtocol.HEADER_BYTES);
+            this.out.put(type);
+
+            try {
+                switch (type) {
+                    case GameProtocol.CREATE -> {
+                        this.expect(payload, 0);
+                        this.game = GameServer.this.manager.create();
+                        this.out.putLong(this.game);
+                    }
+                    case GameProtocol.JOIN -> {
+                        this.expect(payload, Long.BYTES);
+                        long game = this.in.getLong();
+                        if (!GameServer.this.manager.contains(game)) {
+                            throw new NoSuchElementException("No game " + game);
+                        }
+                        this.game = game;
+                        this.out.putLong(game);
+                    }
+                    case GameProtocol.MOVES -> {
+                        if (payload % 2 != 0) {
+                            throw new IOException("Odd move batch of " + payload + " bytes");
+                        }
+                        GameServer.this.manager.withGame(this.game, game -> {
+                            for (int i = 0; i < payload; i += 2) {
+                                Position a = PackedMove.toPosition(this.in.get() & 0xFF);
+                                Position b = PackedMove.toPosition(this.in.get() & 0xFF);
+                                this.out.put((byte) (game.move(a, b) ? 1 : 0));
+                            }
+                            return null;
+                        });
+                    }
+                    case GameProtocol.UNDO -> {
+                        this.expect(payload, 0);
+                        GameServer.this.manager.withGame(this.game, game -> {
+                            game.undoLastMove();
+                            return null;
+                        });
+                    }
+                    case GameProtocol.RESET -> {
+                        this.expect(payload, 0);
+                        GameServer.this.manager.withGame(this.game, game -> {
+                            game.reset();
+                            return null;
+                        });
+                    }
+                    case GameProtocol.STATE -> {
+                        this.expect(payload, 0);
+                        GameSnapshot snapshot = GameServer.this.manager.snapshot(this.game);
+                        snapshot.writeSquares(this.out);
+                        this.out.put((byte) ((snapshot.isSecondPlayerTurn() ? GameProtocol.SECOND_PLAYER_TURN : 0)
+                                | (snapshot.isGameFinished() ? GameProtocol.FINISHED : 0)
+                                | (snapshot.isDraw() ? GameProtocol.DRAW : 0)));
+                        this.out.putInt(snapshot.getPly());
+                        this.out.putLong(snapshot.getHash());
+                    }
+                    case GameProtocol.WINS -> {
+                        this.expect(payload, 0);
+                        GameServer.this.manager.withGame(this.game, game -> {
+                            this.out.putInt(game.getFirstPlayer().getWins());
+                            this.out.putInt(game.getSecondPlayer().getWins());
+                            return null;
+                        });
+                    }
+                    default -> throw new IOException("Unknown frame type " + type);
+                }
+            } catch (NoSuchElementException e) {
+                // Never joined a game, or it expired or was evicted
+                this.out.position(start + GameProtocol.HEADER_BYTES);
+                this.out.put(GameProtocol.ERROR);
+                this.out.put(GameProtocol.NO_GAME);
+            }
+
+            this.out.putShort(start, (short) (this.out.position() - start - GameProtocol.HEADER_BYTES));
+        }
+
+        private void expect(int payload, int bytes) throws IOException {
+            if (payload != bytes) {
+                throw new IOException("Expected " + bytes + " bytes of payload, got " + payload);
+            }
+        }
+
+        private void reserve(int bytes) {
+            if (this.out.remaining() < bytes) {
+                ByteBuffer out = ByteBuffer.allocate(Math.max(this.out.capacity() * 2, this.out.position() + bytes));
+                this.out.flip();
+                out.put(this.out);
+                this.out = out;
+            }
+        }
+    }
+
+    /**
+     * Usage: GameServer [port] [idleMillis] [expiryMillis], serves until the process is stopped.
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        long idleMillis = args.length > 1 ? Long.parseLong(args[1]) : 60_000;
+        long expiryMillis = args.length > 2 ? Long.parseLong(args[2]) : 3_600_000;
+
+        GameServer server = new GameServer(new SessionManager(idleMillis, expiryMillis), new InetSocketAddress(port));
+        System.out.println("Serving games on port " + server.getPort());
+    }
+}
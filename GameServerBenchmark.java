@@ -0,0 +1,141 @@
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Load test of a {@link GameServer} on localhost: thousands of {@link GameClient}s, each playing its own game,
+ * replay random legal games in pipelined batches of moves. A few driver threads share the clients, queueing a batch
+ * on every client of theirs before reading any answer. Reports moves per second and round trip latency of a batch.
+ * Usage: GameServerBenchmark [clients] [threads] [seconds] [batch]
+ */
+public class GameServerBenchmark {
+    private static final int GAMES = 200;
+    private static final int MAX_PLIES = 300;
+    private static final long SEED = 42;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        int batch = args.length > 3 ? Integer.parseInt(args[3]) : 8;
+        int[][] games = generateGames(new Random(SEED));
+
+        try (GameServer server = new GameServer(new SessionManager(60_000, 600_000), new InetSocketAddress(InetAddress.getLoopbackAddress(), 0))) {
+            InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getPort());
+            long end = System.nanoTime() + seconds * 1_000_000_000L;
+            long[] totals = new long[threads], rejected = new long[threads];
+            List<long[]> latencies = new ArrayList<>();
+            int[] samples = new int[threads];
+            CountDownLatch connected = new CountDownLatch(threads), done = new CountDownLatch(threads);
+
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                int share = clients / threads + (t < clients % threads ? 1 : 0);
+                long[] latency = new long[1 << 20];
+                latencies.add(latency);
+                new Thread(() -> {
+                    try {
+                        GameClient[] connections = new GameClient[share];
+                        int[] game = new int[share], ply = new int[share], sent = new int[share];
+                        long[] start = new long[share];
+                        boolean[] played = new boolean[GameProtocol.MAX_BATCH];
+                        for (int i = 0; i < share; i++) {
+                            connections[i] = new GameClient(address);
+                            connections[i].create();
+                            game[i] = (thread + i * threads) % games.length;
+                        }
+                        connected.countDown();
+                        connected.await();
+
+                        while (System.nanoTime() < end) {
+                            for (int i = 0; i < share; i++) {
+                                int[] moves = games[game[i]];
+                                if (ply[i] == moves.length) {
+                                    connections[i].reset();
+                                    game[i] = (game[i] + threads) % games.length;
+                                    ply[i] = 0;
+                                    moves = games[game[i]];
+                                }
+                                sent[i] = Math.min(batch, moves.length - ply[i]);
+                                connections[i].sendMoves(moves, ply[i], sent[i]);
+                                connections[i].flush();
+                                start[i] = System.nanoTime();
+                            }
+
+                            for (int i = 0; i < share; i++) {
+                                int count = connections[i].receiveMoves(played, 0);
+                                if (samples[thread] < latency.length) {
+                                    latency[samples[thread]++] = System.nanoTime() - start[i];
+                                }
+                                for (int j = 0; j < count; j++) {
+                                    if (!played[j]) {
+                                        rejected[thread]++;
+                                    }
+                                }
+                                totals[thread] += count;
+                                ply[i] += sent[i];
+                            }
+                        }
+
+                        for (GameClient connection : connections) {
+                            connection.close();
+                        }
+                    } catch (IOException | InterruptedException e) {
+                        throw new RuntimeException(e);
+                    } finally {
+                        done.countDown();
+                    }
+                }).start();
+            }
+
+            connected.await();
+            long started = System.nanoTime();
+            done.await();
+            double elapsed = (System.nanoTime() - started) / 1e9;
+
+            long total = Arrays.stream(totals).sum(), illegal = Arrays.stream(rejected).sum();
+            int count = Arrays.stream(samples).sum();
+            long[] all = new long[count];
+            for (int t = 0, at = 0; t < threads; t++) {
+                System.arraycopy(latencies.get(t), 0, all, at, samples[t]);
+                at += samples[t];
+            }
+            Arrays.sort(all);
+
+            System.out.printf("Clients: %,d, threads: %d, %d moves per batch%n", clients, threads, batch);
+            System.out.printf("Moves:   %,d in %.1f s, %,.0f moves/s, %,d rejected%n", total, elapsed, total / elapsed, illegal);
+            System.out.printf("Batch round trip: p50 %,d us, p99 %,d us, max %,d us%n",
+                    all[count / 2] / 1000, all[Math.min(count - 1, (int) (count * 0.99))] / 1000, all[count - 1] / 1000);
+        }
+    }
+
+    // Random legal games as packed moves, each played to its end or MAX_PLIES
+    private static int[][] generateGames(Random random) {
+        GameLogic gameLogic = new GameLogic();
+        gameLogic.setReportSink(NoOpReportSink.INSTANCE);
+        int[] legal = new int[GameLogic.MAX_LEGAL_MOVES];
+        int[][] games = new int[GAMES][];
+        for (int g = 0; g < GAMES; g++) {
+            gameLogic.reset();
+            MoveList moves = new MoveList();
+            int count;
+            while (moves.size() < MAX_PLIES && (count = gameLogic.generateLegalMoves(legal)) > 0) {
+                int move = legal[random.nextInt(count)];
+                gameLogic.move(PackedMove.toPosition(PackedMove.from(move)), PackedMove.toPosition(PackedMove.to(move)));
+                moves.add(move);
+            }
+
+            games[g] = new int[moves.size()];
+            for (int i = 0; i < moves.size(); i++) {
+                games[g][i] = moves.get(i);
+            }
+        }
+
+        return games;
+    }
+}
@@ -0,0 +1,84 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameServerTest {
+    @Test
+    void answersMatchALocalGame() throws IOException {
+        try (GameServer server = new GameServer(new SessionManager(60_000, 600_000), new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+             GameClient client = new GameClient(new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getPort()));
+             GameClient other = new GameClient(new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getPort()))) {
+            long id = client.create();
+            GameLogic local = TestGames.quietGame();
+            assertSameState(local.snapshot(), client.state());
+
+            // Every move of a random game twice, the second time illegal, all batches sent before reading any answer
+            int[] game = TestGames.moves(TestGames.playRandomMoves(TestGames.quietGame(), new Random(1), Integer.MAX_VALUE));
+            int[] moves = new int[2 * game.length];
+            for (int i = 0; i < game.length; i++) {
+                moves[2 * i] = game[i];
+                moves[2 * i + 1] = game[i];
+            }
+            int batch = 100;
+            for (int offset = 0; offset < moves.length; offset += batch) {
+                client.sendMoves(moves, offset, Math.min(batch, moves.length - offset));
+            }
+            boolean[] played = new boolean[moves.length];
+            for (int offset = 0; offset < moves.length; offset += batch) {
+                assertEquals(Math.min(batch, moves.length - offset), client.receiveMoves(played, offset));
+            }
+            for (int i = 0; i < moves.length; i++) {
+                assertEquals(local.move(PackedMove.toPosition(PackedMove.from(moves[i])), PackedMove.toPosition(PackedMove.to(moves[i]))), played[i], "move " + i);
+            }
+            assertTrue(local.isGameFinished());
+            assertSameState(local.snapshot(), client.state());
+
+            int[] wins = new int[2];
+            client.getWins(wins);
+            assertArrayEquals(new int[] {local.getFirstPlayer().getWins(), local.getSecondPlayer().getWins()}, wins);
+
+            client.undoLastMove();
+            local.undoLastMove();
+            assertSameState(local.snapshot(), client.state());
+
+            // A second client plays the same game
+            other.join(id);
+            assertSameState(local.snapshot(), other.state());
+            assertFalse(other.move(Position.of(-1, 0), Position.of(0, 0)));
+            other.reset();
+            local.reset();
+            assertTrue(other.move(Position.of(3, 0), Position.of(3, 1)));
+            assertTrue(local.move(Position.of(3, 0), Position.of(3, 1)));
+            assertSameState(local.snapshot(), client.state());
+        }
+    }
+
+    @Test
+    void errorsLeaveTheConnectionUsable() throws IOException {
+        try (GameServer server = new GameServer(new SessionManager(60_000, 600_000), new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+             GameClient client = new GameClient(new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getPort()))) {
+            assertThrows(IOException.class, client::state);
+            assertThrows(IOException.class, () -> client.join(12345));
+
+            client.create();
+            assertEquals(0, client.state().getPly());
+        }
+    }
+
+    private static void assertSameState(GameSnapshot expected, GameSnapshot actual) {
+        for (int square = 0; square < Board.SQUARES; square++) {
+            assertEquals(expected.pieceAt(square), actual.pieceAt(square), "square " + square);
+            assertEquals(expected.pieceId(square), actual.pieceId(square), "square " + square);
+        }
+        assertEquals(expected.isSecondPlayerTurn(), actual.isSecondPlayerTurn());
+        assertEquals(expected.isGameFinished(), actual.isGameFinished());
+        assertEquals(expected.isDraw(), actual.isDraw());
+        assertEquals(expected.getPly(), actual.getPly());
+        assertEquals(expected.getHash(), actual.getHash());
+    }
+}
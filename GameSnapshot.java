@@ -0,0 +1,80 @@
+import java.nio.ByteBuffer;
+
+/**
+ * Immutable copy of the position of a {@link GameLogic}: one byte per square holding the piece type and id, and the side to move.
+ * Every field is final and never changes, so a snapshot can be handed to other threads without locking.
+ * Kills, distances and move history are not included.
+ */
+public final class GameSnapshot {
+    private static final int TYPE_MASK = 0x3;
+    private static final int ID_SHIFT = 2;
+
+    private final byte[] squares;
+    private final boolean secondPlayerTurn, gameFinished, draw;
+    private final int ply;
+    private final long hash;
+
+    GameSnapshot(byte[] squares, boolean secondPlayerTurn, boolean gameFinished, boolean draw, int ply, long hash) {
+        this.squares = squares;
+        this.secondPlayerTurn = secondPlayerTurn;
+        this.gameFinished = gameFinished;
+        this.draw = draw;
+        this.ply = ply;
+        this.hash = hash;
+    }
+
+    /**
+     * @return The square's code, its {@link Board} piece type with the piece id above it.
+     */
+    static byte encode(ConcretePiece piece) {
+        return (byte) (Board.pieceType(piece) | piece.getId() << ID_SHIFT);
+    }
+
+    /**
+     * Copy out the square codes as {@link #encode(ConcretePiece)} made them, one byte per square.
+     * Reading them back into a snapshot gives the same pieces and ids.
+     */
+    void writeSquares(ByteBuffer out) {
+        out.put(this.squares);
+    }
+
+    /**
+     * @return The {@link Board} piece type on the square, {@link Board#EMPTY} if there is none.
+     */
+    public byte pieceAt(int square) {
+        return (byte) (this.squares[square] & TYPE_MASK);
+    }
+
+    /**
+     * @return The id of the piece on the square, 0 if there is none.
+     */
+    public int pieceId(int square) {
+        return this.squares[square] >>> ID_SHIFT;
+    }
+
+    public boolean isSecondPlayerTurn() {
+        return this.secondPlayerTurn;
+    }
+
+    public boolean isGameFinished() {
+        return this.gameFinished;
+    }
+
+    public boolean isDraw() {
+        return this.draw;
+    }
+
+    /**
+     * @return The number of plies played to reach this position.
+     */
+    public int getPly() {
+        return this.ply;
+    }
+
+    /**
+     * @return The {@link Zobrist} hash of the position, equal to {@link GameLogic#getHash()} when the snapshot was taken.
+     */
+    public long getHash() {
+        return this.hash;
+    }
+}
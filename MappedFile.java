@@ -0,0 +1,117 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * File mapped into memory in fixed size chunks, so it can grow past 2GB and while readers are using it.
+ * Chunks are mapped on first use and stay mapped until the JVM releases them.
+ * Longs must be 8-byte aligned, so they never straddle two chunks.
+ */
+final class MappedFile implements AutoCloseable {
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+    private final FileChannel channel;
+    private final int chunkShift;
+    private final long chunkMask;
+    private volatile MappedByteBuffer[] chunks;
+
+    MappedFile(Path path, int chunkShift) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.chunkShift = chunkShift;
+        this.chunkMask = (1L << chunkShift) - 1;
+        this.chunks = new MappedByteBuffer[0];
+    }
+
+    long size() throws IOException {
+        return this.channel.size();
+    }
+
+    private MappedByteBuffer chunk(long position) {
+        int index = (int) (position >>> this.chunkShift);
+        MappedByteBuffer[] chunks = this.chunks;
+        if (index < chunks.length) {
+            return chunks[index];
+        }
+
+        return this.map(index);
+    }
+
+    private synchronized MappedByteBuffer map(int index) {
+        MappedByteBuffer[] chunks = this.chunks;
+        if (index < chunks.length) {
+            return chunks[index];
+        }
+
+        // Mapping past the end of the file grows it
+        MappedByteBuffer[] grown = Arrays.copyOf(chunks, index + 1);
+        try {
+            for (int i = chunks.length; i <= index; i++) {
+                grown[i] = this.channel.map(FileChannel.MapMode.READ_WRITE, (long) i << this.chunkShift, 1L << this.chunkShift);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not map " + (1L << this.chunkShift) + " bytes", e);
+        }
+        this.chunks = grown;
+
+        return grown[index];
+    }
+
+    byte getByte(long position) {
+        return this.chunk(position).get((int) (position & this.chunkMask));
+    }
+
+    void putByte(long position, byte value) {
+        this.chunk(position).put((int) (position & this.chunkMask), value);
+    }
+
+    long getLong(long position) {
+        return (long) LONGS.get(this.chunk(position), (int) (position & this.chunkMask));
+    }
+
+    void putLong(long position, long value) {
+        LONGS.set(this.chunk(position), (int) (position & this.chunkMask), value);
+    }
+
+    /**
+     * Read a long published with {@link #putLongRelease(long, long)}, seeing every write made before it.
+     */
+    long getLongAcquire(long position) {
+        return (long) LONGS.getAcquire(this.chunk(position), (int) (position & this.chunkMask));
+    }
+
+    void putLongRelease(long position, long value) {
+        LONGS.setRelease(this.chunk(position), (int) (position & this.chunkMask), value);
+    }
+
+    void force() {
+        for (MappedByteBuffer chunk : this.chunks) {
+            chunk.force();
+        }
+    }
+
+    /**
+     * Copy the start of the file to a channel, from the file rather than the mapped chunks.
+     */
+    void transferTo(long size, WritableByteChannel target) throws IOException {
+        for (long position = 0; position < size; ) {
+            position += this.channel.transferTo(position, size - position, target);
+        }
+    }
+
+    /**
+     * Close the file. Chunks stay mapped and the file keeps its mapped size, so a reader still holding a chunk
+     * never touches memory past the end of the file.
+     */
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+}
@@ -0,0 +1,281 @@
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Computer player using Monte Carlo tree search with UCT selection, an alternative to {@link SearchEngine}
+ * that needs no evaluation function. Playouts follow the rules of {@link Board} and run in batches on a
+ * fork-join pool, while the tree itself is only touched by the calling thread.
+ * Nodes live in parallel primitive arrays, 22 bytes each, so trees of tens of millions of nodes fit in heap.
+ */
+public class MonteCarloSearch {
+    private static final double EXPLORATION = 0.7;
+    private static final int MAX_PLAYOUT_PLIES = 400;
+    private static final int SEQUENTIAL_PLAYOUTS = 4;
+
+    // Set on a node's move when the attacker played it
+    private static final int ATTACKER_MOVED = 1 << 16;
+    private static final int MOVE_MASK = ATTACKER_MOVED - 1;
+
+    private final long maxPlayouts, timeLimitNanos;
+    private final int batchSize;
+    private final ForkJoinPool pool;
+
+    // Node storage, the root is node 0 and the children of a node are stored next to each other
+    private final int[] parent, firstChild, move, visits;
+    private final short[] childCount;
+    private final float[] wins;
+    private int nodeCount;
+    private final int[] expandMoves;
+
+    // Per batch slot state, reused between batches
+    private final int[] leaves, outcomes;
+    private final Board[] boards;
+    private final int[][] playoutMoves;
+    private final SplittableRandom[] randoms;
+    private final SplittableRandom random;
+
+    /**
+     * @param maxNodes        Size of the node arrays; the tree stops growing once they are full.
+     * @param maxPlayouts     Playouts per search, or 0 to only stop on time.
+     * @param timeLimitMillis Time budget per search, or 0 to only stop on playouts.
+     * @param batchSize       Playouts run in parallel between tree updates, at least 1.
+     * @param seed            Seed for the playouts, searches are reproducible for a given seed.
+     */
+    public MonteCarloSearch(int maxNodes, long maxPlayouts, long timeLimitMillis, int batchSize, long seed) {
+        if (maxPlayouts <= 0 && timeLimitMillis <= 0) {
+            throw new IllegalArgumentException("A playout or time budget is needed");
+        }
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("A batch of at least one playout is needed, not " + batchSize);
+        }
+
+        this.maxPlayouts = maxPlayouts;
+        this.timeLimitNanos = timeLimitMillis * 1_000_000;
+        this.batchSize = batchSize;
+        this.pool = ForkJoinPool.commonPool();
+
+        this.parent = new int[maxNodes];
+        this.firstChild = new int[maxNodes];
+        this.move = new int[maxNodes];
+        this.visits = new int[maxNodes];
+        this.childCount = new short[maxNodes];
+        this.wins = new float[maxNodes];
+        this.expandMoves = new int[GameLogic.MAX_LEGAL_MOVES];
+
+        this.leaves = new int[batchSize];
+        this.outcomes = new int[batchSize];
+        this.boards = new Board[batchSize];
+        this.playoutMoves = new int[batchSize][GameLogic.MAX_LEGAL_MOVES];
+        this.randoms = new SplittableRandom[batchSize];
+        this.random = new SplittableRandom(seed);
+    }
+
+    /**
+     * Search the current position of the game and play the best move for the side to move.
+     */
+    public SearchResult play(GameLogic game) {
+        SearchResult result = this.search(new Board(game));
+        if (result.move() != SearchEngine.NO_MOVE) {
+            game.move(PackedMove.toPosition(PackedMove.from(result.move())), PackedMove.toPosition(PackedMove.to(result.move())));
+        }
+
+        return result;
+    }
+
+    /**
+     * Search the given board. The board is left as it was found.
+     * The result's score is the win rate of the chosen move in thousandths, and its node count is the number of playouts.
+     */
+    public SearchResult search(Board board) {
+        long start = System.nanoTime();
+        this.nodeCount = 1;
+        this.parent[0] = -1;
+        this.visits[0] = 0;
+        this.wins[0] = 0;
+        this.firstChild[0] = 0;
+        this.expand(0, board);
+        if (this.childCount[0] == 0) {
+            return new SearchResult(SearchEngine.NO_MOVE, 0, 0, 0, System.nanoTime() - start);
+        }
+
+        for (int slot = 0; slot < this.batchSize; slot++) {
+            if (this.boards[slot] == null) {
+                this.boards[slot] = new Board(board);
+            }
+            this.randoms[slot] = this.random.split();
+        }
+
+        long playouts = 0;
+        int maxDepth = 0;
+        while ((this.maxPlayouts <= 0 || playouts < this.maxPlayouts)
+                && (this.timeLimitNanos <= 0 || System.nanoTime() - start < this.timeLimitNanos)) {
+            int batch = this.maxPlayouts <= 0 ? this.batchSize : (int) Math.min(this.batchSize, this.maxPlayouts - playouts);
+
+            // Select all leaves first, visits added on the way down steer later selections elsewhere
+            for (int slot = 0; slot < batch; slot++) {
+                maxDepth = Math.max(maxDepth, this.select(board, slot));
+            }
+
+            this.pool.invoke(new Playouts(this, 0, batch));
+
+            for (int slot = 0; slot < batch; slot++) {
+                this.backPropagate(this.leaves[slot], this.outcomes[slot]);
+            }
+            playouts += batch;
+        }
+
+        // The most visited move is the most trusted one
+        int best = this.firstChild[0];
+        for (int child = best + 1; child < this.firstChild[0] + this.childCount[0]; child++) {
+            if (this.visits[child] > this.visits[best]) {
+                best = child;
+            }
+        }
+
+        int score = Math.round(1000 * this.wins[best] / Math.max(1, this.visits[best]));
+        return new SearchResult(this.move[best] & MOVE_MASK, score, maxDepth, playouts, System.nanoTime() - start);
+    }
+
+    public int getNodeCount() {
+        return this.nodeCount;
+    }
+
+    private int select(Board board, int slot) {
+        int node = 0, depth = 0;
+        this.visits[0]++;
+
+        while (this.childCount[node] > 0) {
+            node = this.bestChild(node);
+            board.make(this.move[node] & MOVE_MASK);
+            this.visits[node]++;
+            depth++;
+
+            // Grow the tree by one level once a leaf is visited again
+            if (this.childCount[node] == 0 && this.visits[node] > 1 && !board.isFinished()) {
+                this.expand(node, board);
+            }
+        }
+
+        this.leaves[slot] = node;
+        this.boards[slot].copyFrom(board);
+        for (int i = 0; i < depth; i++) {
+            board.unmake();
+        }
+
+        return depth;
+    }
+
+    private int bestChild(int node) {
+        int first = this.firstChild[node], last = first + this.childCount[node];
+        double logVisits = Math.log(this.visits[node]);
+        int best = first;
+        double bestValue = Double.NEGATIVE_INFINITY;
+
+        for (int child = first; child < last; child++) {
+            if (this.visits[child] == 0) {
+                return child;
+            }
+
+            double value = this.wins[child] / this.visits[child] + EXPLORATION * Math.sqrt(logVisits / this.visits[child]);
+            if (value > bestValue) {
+                bestValue = value;
+                best = child;
+            }
+        }
+
+        return best;
+    }
+
+    private void expand(int node, Board board) {
+        int[] moves = this.expandMoves;
+        int count = board.generateMoves(moves);
+
+        // Leave the node as a leaf when the arrays are full
+        if (count == 0 || this.nodeCount + count > this.parent.length) {
+            return;
+        }
+
+        int mover = board.isAttackerTurn() ? ATTACKER_MOVED : 0;
+        int first = this.nodeCount;
+        for (int i = 0; i < count; i++) {
+            int child = first + i;
+            this.parent[child] = node;
+            this.firstChild[child] = 0;
+            this.childCount[child] = 0;
+            this.move[child] = moves[i] | mover;
+            this.visits[child] = 0;
+            this.wins[child] = 0;
+        }
+
+        this.firstChild[node] = first;
+        this.childCount[node] = (short) count;
+        this.nodeCount += count;
+    }
+
+    private void backPropagate(int node, int outcome) {
+        // Visits were already counted during selection, only the rewards are left
+        for (; node > 0; node = this.parent[node]) {
+            if (outcome == Board.ONGOING) {
+                this.wins[node] += 0.5f;
+            } else if ((outcome == Board.ATTACKER_WON) == ((this.move[node] & ATTACKER_MOVED) != 0)) {
+                this.wins[node] += 1;
+            }
+        }
+    }
+
+    /**
+     * Play random moves until the game ends, except that the king always takes an open corner.
+     *
+     * @return The result of the game, {@link Board#ONGOING} for playouts that hit the ply limit.
+     */
+    private static int playout(Board board, int[] moves, SplittableRandom random) {
+        for (int ply = 0; ply < MAX_PLAYOUT_PLIES && !board.isFinished(); ply++) {
+            int count = board.generateMoves(moves);
+            if (count == 0) {
+                break;
+            }
+
+            int chosen = moves[random.nextInt(count)];
+            if (!board.isAttackerTurn()) {
+                for (int i = 0; i < count; i++) {
+                    if (board.pieceAt(PackedMove.from(moves[i])) == Board.KING && Board.isCorner(PackedMove.to(moves[i]))) {
+                        chosen = moves[i];
+                        break;
+                    }
+                }
+            }
+
+            board.make(chosen);
+        }
+
+        return board.getResult();
+    }
+
+    // Fork-join tasks are serializable, but these are never serialized
+    private static final class Playouts extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final transient MonteCarloSearch search;
+        private final int from, to;
+
+        Playouts(MonteCarloSearch search, int from, int to) {
+            this.search = search;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.to - this.from <= SEQUENTIAL_PLAYOUTS) {
+                for (int slot = this.from; slot < this.to; slot++) {
+                    this.search.outcomes[slot] = playout(this.search.boards[slot], this.search.playoutMoves[slot], this.search.randoms[slot]);
+                }
+                return;
+            }
+
+            int middle = (this.from + this.to) >>> 1;
+            invokeAll(new Playouts(this.search, this.from, middle), new Playouts(this.search, middle, this.to));
+        }
+    }
+}
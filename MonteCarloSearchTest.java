@@ -0,0 +1,30 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MonteCarloSearchTest {
+    @Test
+    void sameSeedSameMove() {
+        Board board = new Board(TestGames.playRandomMoves(TestGames.quietGame(), new Random(1), 20));
+        long hash = board.getHash();
+        for (int batchSize : new int[] {1, 16}) {
+            SearchResult first = new MonteCarloSearch(1 << 16, 3000, 0, batchSize, 7).search(board);
+            for (int run = 0; run < 3; run++) {
+                SearchResult again = new MonteCarloSearch(1 << 16, 3000, 0, batchSize, 7).search(board);
+                assertEquals(first.move(), again.move(), "batch " + batchSize);
+                assertEquals(first.score(), again.score());
+                assertEquals(first.depth(), again.depth());
+            }
+            assertEquals(3000, first.nodes());
+            assertEquals(hash, board.getHash());
+        }
+    }
+
+    @Test
+    void rejectsMissingBudgets() {
+        assertThrows(IllegalArgumentException.class, () -> new MonteCarloSearch(16, 0, 0, 1, 1));
+        assertThrows(IllegalArgumentException.class, () -> new MonteCarloSearch(16, 100, 0, 0, 1));
+    }
+}
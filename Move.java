@@ -1,3 +1,99 @@
-import java.util.ArrayList;
+/**
+ * A move in the history of a {@link GameLogic}, with everything needed to take it back and play it again exactly.
+ * GameLogic recycles instances once their move can no longer be redone, so victims are kept in fixed buffers instead of lists.
+ */
+public final class Move {
+    // At most one piece can be captured in each direction
+    private static final int MAX_VICTIMS = 4;
 
-public record Move(ConcretePiece target, Position oldPosition, ArrayList<ConcretePiece> victims) {}
+    private ConcretePiece target;
+    private Position oldPosition, newPosition;
+    private final ConcretePiece[] victims = new ConcretePiece[MAX_VICTIMS];
+
+    // Where each victim stood in the pieces list when it was removed, -1 for a king that stays on the board
+    private final int[] victimIndices = new int[MAX_VICTIMS];
+    private int victimCount;
+
+    // How the move ended the game, if it did
+    private boolean cornerEscape, draw;
+    private ConcretePlayer winner;
+
+    void set(ConcretePiece target, Position oldPosition, Position newPosition) {
+        this.target = target;
+        this.oldPosition = oldPosition;
+        this.newPosition = newPosition;
+        for (int i = 0; i < this.victimCount; i++) {
+            this.victims[i] = null;
+        }
+        this.victimCount = 0;
+        this.cornerEscape = false;
+        this.draw = false;
+        this.winner = null;
+    }
+
+    void addVictim(ConcretePiece victim, int index) {
+        this.victims[this.victimCount] = victim;
+        this.victimIndices[this.victimCount++] = index;
+    }
+
+    int victimIndex(int index) {
+        return this.victimIndices[index];
+    }
+
+    void setCornerEscape() {
+        this.cornerEscape = true;
+    }
+
+    /**
+     * @return True for the king reaching a corner. Such a move does not appear in the reported move history.
+     */
+    boolean isCornerEscape() {
+        return this.cornerEscape;
+    }
+
+    void setWinner(ConcretePlayer winner) {
+        this.winner = winner;
+    }
+
+    ConcretePlayer winner() {
+        return this.winner;
+    }
+
+    void setDraw() {
+        this.draw = true;
+    }
+
+    boolean isDraw() {
+        return this.draw;
+    }
+
+    public ConcretePiece target() {
+        return this.target;
+    }
+
+    public Position oldPosition() {
+        return this.oldPosition;
+    }
+
+    public Position newPosition() {
+        return this.newPosition;
+    }
+
+    public int victimCount() {
+        return this.victimCount;
+    }
+
+    public ConcretePiece victim(int index) {
+        return this.victims[index];
+    }
+
+    public boolean capturedKing() {
+        for (int i = 0; i < this.victimCount; i++) {
+            if (this.victims[i] instanceof King) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
@@ -0,0 +1,100 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class MoveBenchmark {
+    private static final int GAMES = 200;
+    private static final int MAX_PLIES = 300;
+    private static final int ROUNDS = 20;
+    private static final long SEED = 42;
+
+    public static void main(String[] args) {
+        // Keep the end of game reports from dominating the measurement
+        GameLogic gameLogic = new GameLogic();
+        gameLogic.setReportSink(NoOpReportSink.INSTANCE);
+        List<Position[]> games = generateGames(gameLogic, new Random(SEED));
+        int plies = 0;
+        for (Position[] game : games) {
+            plies += game.length / 2;
+        }
+
+        long bestMoves = Long.MAX_VALUE, bestLookups = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (Position[] game : games) {
+                replay(gameLogic, game);
+            }
+            bestMoves = Math.min(bestMoves, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            int found = 0;
+            for (Position[] game : games) {
+                gameLogic.reset();
+                for (int i = 0; i < game.length; i += 2) {
+                    gameLogic.move(game[i], game[i + 1]);
+                    found += scanBoard(gameLogic);
+                }
+            }
+            bestLookups = Math.min(bestLookups, System.nanoTime() - start);
+
+            // Keep the JIT from discarding the scans
+            if (found == 0) {
+                System.out.println("No pieces found");
+            }
+        }
+
+        System.out.println("Games: " + games.size() + ", plies: " + plies);
+        System.out.printf("move():                %,.0f moves/s%n", plies / (bestMoves / 1e9));
+        System.out.printf("move() + board repaint: %,.0f moves/s%n", plies / (bestLookups / 1e9));
+    }
+
+    private static void replay(PlayableLogic gameLogic, Position[] game) {
+        gameLogic.reset();
+        for (int i = 0; i < game.length; i += 2) {
+            gameLogic.move(game[i], game[i + 1]);
+        }
+    }
+
+    private static int scanBoard(PlayableLogic gameLogic) {
+        // Same lookups the GUI performs on every repaint
+        int found = 0;
+        for (int x = 0; x < gameLogic.getBoardSize(); x++) {
+            for (int y = 0; y < gameLogic.getBoardSize(); y++) {
+                if (gameLogic.getPieceAtPosition(new Position(x, y)) != null) {
+                    found++;
+                }
+            }
+        }
+
+        return found;
+    }
+
+    private static List<Position[]> generateGames(PlayableLogic gameLogic, Random random) {
+        List<Position[]> games = new ArrayList<>();
+        int size = gameLogic.getBoardSize();
+
+        for (int game = 0; game < GAMES; game++) {
+            gameLogic.reset();
+            List<Position> moves = new ArrayList<>();
+
+            while (!gameLogic.isGameFinished() && moves.size() / 2 < MAX_PLIES) {
+                Position a = new Position(random.nextInt(size), random.nextInt(size));
+                Piece piece = gameLogic.getPieceAtPosition(a);
+                if (piece == null || piece.getOwner().isPlayerOne() == gameLogic.isSecondPlayerTurn()) {
+                    continue;
+                }
+
+                // Slide along the row or column of the selected piece
+                Position b = random.nextBoolean() ? new Position(a.x(), random.nextInt(size)) : new Position(random.nextInt(size), a.y());
+                if (gameLogic.move(a, b)) {
+                    moves.add(a);
+                    moves.add(b);
+                }
+            }
+
+            games.add(moves.toArray(new Position[0]));
+        }
+
+        return games;
+    }
+}
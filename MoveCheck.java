@@ -0,0 +1,56 @@
+/**
+ * Outcome of {@link GameLogic#checkMove(Position, Position)}: whether the move is legal and what it would capture.
+ * The game hands out the same instance on every check, so it only holds until the next one.
+ */
+public final class MoveCheck {
+    // At most one piece can be captured in each direction
+    private static final int MAX_CAPTURES = 4;
+
+    private MoveStatus status;
+    private final ConcretePiece[] captures = new ConcretePiece[MAX_CAPTURES];
+    private int captureCount;
+
+    void set(MoveStatus status) {
+        this.status = status;
+        for (int i = 0; i < this.captureCount; i++) {
+            this.captures[i] = null;
+        }
+        this.captureCount = 0;
+    }
+
+    void addCapture(ConcretePiece piece) {
+        this.captures[this.captureCount++] = piece;
+    }
+
+    public MoveStatus status() {
+        return this.status;
+    }
+
+    public boolean isLegal() {
+        return this.status == MoveStatus.OK;
+    }
+
+    /**
+     * @return The number of pieces the move would capture, 0 for an illegal move.
+     */
+    public int captureCount() {
+        return this.captureCount;
+    }
+
+    /**
+     * @return A piece the move would capture, in their current positions. A captured king ends the game.
+     */
+    public ConcretePiece capture(int index) {
+        return this.captures[index];
+    }
+
+    public boolean capturesKing() {
+        for (int i = 0; i < this.captureCount; i++) {
+            if (this.captures[i] instanceof King) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
@@ -0,0 +1,38 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight Recorder event for every move tried on a {@link GameLogic} with {@link GameMetrics} set, accepted or not.
+ */
+@Name("tafl.Move")
+@Label("Move")
+@Category("Tafl")
+@StackTrace(false)
+public final class MoveEvent extends jdk.jfr.Event {
+    @Label("From")
+    @Description("Square moved from, x * 11 + y, or -1 when off the board")
+    int from;
+
+    @Label("To")
+    int to;
+
+    @Label("Status")
+    String status;
+
+    @Label("Captures")
+    int captures;
+
+    @Label("King Captured")
+    boolean kingCaptured;
+
+    @Label("Corner Escape")
+    boolean cornerEscape;
+
+    @Label("Move Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long moveTime;
+}
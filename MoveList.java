@@ -0,0 +1,75 @@
+import java.util.Arrays;
+
+/**
+ * Growable list of {@link PackedMove} ints, 4 bytes per move with no boxing.
+ */
+public final class MoveList {
+    private static final int DEFAULT_CAPACITY = 64;
+
+    private int[] moves;
+    private int size;
+
+    public MoveList() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public MoveList(int capacity) {
+        this.moves = new int[Math.max(1, capacity)];
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    public int get(int index) {
+        if (index >= this.size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+
+        return this.moves[index];
+    }
+
+    public int last() {
+        return this.get(this.size - 1);
+    }
+
+    public void add(int move) {
+        if (this.size == this.moves.length) {
+            this.moves = Arrays.copyOf(this.moves, this.moves.length * 2);
+        }
+
+        this.moves[this.size++] = move;
+    }
+
+    public int removeLast() {
+        if (this.size == 0) {
+            throw new IllegalStateException("Move list is empty");
+        }
+
+        return this.moves[--this.size];
+    }
+
+    public void clear() {
+        this.size = 0;
+    }
+
+    /**
+     * Replace the contents of this list with those of another, growing at most once.
+     */
+    public void copyFrom(MoveList other) {
+        if (this.moves.length < other.size) {
+            this.moves = new int[other.moves.length];
+        }
+
+        System.arraycopy(other.moves, 0, this.moves, 0, other.size);
+        this.size = other.size;
+    }
+
+    public int[] toArray() {
+        return Arrays.copyOf(this.moves, this.size);
+    }
+}
@@ -0,0 +1,61 @@
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoveListTest {
+    @Test
+    void growsAndShrinks() {
+        MoveList moves = new MoveList(2);
+        assertTrue(moves.isEmpty());
+        assertThrows(IllegalStateException.class, moves::removeLast);
+
+        // Past the initial capacity several times
+        for (int i = 0; i < 100; i++) {
+            moves.add(PackedMove.of(i, i + 1));
+        }
+        assertEquals(100, moves.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(PackedMove.of(i, i + 1), moves.get(i));
+        }
+        assertEquals(PackedMove.of(99, 100), moves.last());
+        assertThrows(IndexOutOfBoundsException.class, () -> moves.get(100));
+
+        assertEquals(PackedMove.of(99, 100), moves.removeLast());
+        assertEquals(99, moves.size());
+        assertThrows(IndexOutOfBoundsException.class, () -> moves.get(99));
+        assertEquals(PackedMove.of(98, 99), moves.last());
+
+        int[] array = moves.toArray();
+        assertEquals(99, array.length);
+        assertEquals(PackedMove.of(0, 1), array[0]);
+
+        moves.clear();
+        assertTrue(moves.isEmpty());
+        assertThrows(IndexOutOfBoundsException.class, () -> moves.get(0));
+    }
+
+    @Test
+    void copies() {
+        MoveList source = new MoveList();
+        for (int i = 0; i < 200; i++) {
+            source.add(i);
+        }
+
+        // A smaller list grows to take the copy, a larger one keeps its room and only takes the size
+        MoveList small = new MoveList(1);
+        small.add(-1);
+        small.copyFrom(source);
+        assertArrayEquals(source.toArray(), small.toArray());
+
+        MoveList shorter = new MoveList();
+        shorter.add(7);
+        small.copyFrom(shorter);
+        assertEquals(1, small.size());
+        assertEquals(7, small.last());
+
+        // The copy does not share its contents
+        small.add(8);
+        assertEquals(1, shorter.size());
+        assertEquals(200, source.size());
+    }
+}
@@ -0,0 +1,28 @@
+/**
+ * Whether {@link GameLogic#move(Position, Position)} accepts a move, and otherwise the first rule it breaks,
+ * in the order the rules are checked.
+ */
+public enum MoveStatus {
+    OK,
+
+    // The game has ended, so no move is legal
+    GAME_FINISHED,
+
+    // One of the squares is off the board
+    OFF_BOARD,
+
+    // The squares are not on the same row or column, or are the same square
+    DIAGONAL,
+
+    // There is no piece to move
+    NO_PIECE,
+
+    // The piece belongs to the player not on turn
+    WRONG_TURN,
+
+    // A piece stands on the way or on the destination
+    BLOCKED,
+
+    // Only the king may enter a corner
+    CORNER_FORBIDDEN
+}
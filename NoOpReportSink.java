@@ -0,0 +1,12 @@
+import java.util.List;
+
+/**
+ * Drops game reports, for headless and automated play.
+ */
+public class NoOpReportSink implements GameReportSink {
+    public static final NoOpReportSink INSTANCE = new NoOpReportSink();
+
+    @Override
+    public void gameFinished(List<Move> winnerMoves, List<Move> loserMoves, List<ConcretePiece> pieces, int[] piecesPerSquare) {
+    }
+}
@@ -0,0 +1,231 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Moves played from early positions of past games with how often they won, for playing the opening without searching.
+ * Positions are folded by {@link Symmetry}, so the book stores each position and its moves in the canonical frame only.
+ * On disk the book is {@link #MAGIC}, the entry count, then entries sorted by hash and move:
+ * 8 bytes of canonical hash, 2 bytes of move, 4 bytes of games and 4 bytes of wins for the side that played the move.
+ */
+public final class OpeningBook {
+    static final long MAGIC = 0x5441464C424F4F4BL; // "TAFLBOOK"
+
+    private final long[] hashes;
+    private final int[] moves, games, wins;
+
+    private OpeningBook(long[] hashes, int[] moves, int[] games, int[] wins) {
+        this.hashes = hashes;
+        this.moves = moves;
+        this.games = games;
+        this.wins = wins;
+    }
+
+    public static OpeningBook load(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readLong() != MAGIC) {
+                throw new IOException("Not an opening book: " + path);
+            }
+
+            int size = in.readInt();
+            long[] hashes = new long[size];
+            int[] moves = new int[size], games = new int[size], wins = new int[size];
+            for (int i = 0; i < size; i++) {
+                hashes[i] = in.readLong();
+                moves[i] = in.readUnsignedShort();
+                games[i] = in.readInt();
+                wins[i] = in.readInt();
+            }
+
+            return new OpeningBook(hashes, moves, games, wins);
+        }
+    }
+
+    public int size() {
+        return this.hashes.length;
+    }
+
+    /**
+     * Choose the book move with the best win rate for the side to move, smoothed so rarely played moves do not dominate.
+     *
+     * @return The move in the board's own frame, or {@link SearchEngine#NO_MOVE} if the position is not in the book.
+     */
+    public int probe(Board board) {
+        if (board.isFinished()) {
+            return SearchEngine.NO_MOVE;
+        }
+
+        long[] hashes = Symmetry.hashes(board);
+        int transform = Symmetry.canonicalTransform(hashes);
+        long hash = hashes[transform];
+
+        // Entries of one position are contiguous, find the first
+        int low = 0, high = this.hashes.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (this.hashes[middle] < hash) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        int best = SearchEngine.NO_MOVE;
+        double bestRate = -1;
+        for (int i = low; i < this.hashes.length && this.hashes[i] == hash; i++) {
+            double rate = (this.wins[i] + 1.0) / (this.games[i] + 2.0);
+            int move = Symmetry.move(Symmetry.inverse(transform), this.moves[i]);
+
+            // A hash collision could suggest a move that is not even legal here
+            if (rate > bestRate && board.isLegal(move)) {
+                best = move;
+                bestRate = rate;
+            }
+        }
+
+        return best;
+    }
+
+    /**
+     * Aggregates games into a book. Not thread safe.
+     */
+    public static final class Builder {
+        private final int maxPlies;
+        private final Board start, board;
+        private final long[] hashes;
+
+        // Canonical hash to canonical move to games and wins
+        private final Map<Long, Map<Integer, int[]>> positions;
+
+        /**
+         * @param maxPlies Only positions up to this many plies into a game are recorded.
+         */
+        public Builder(int maxPlies) {
+            this.maxPlies = maxPlies;
+            this.start = new Board(new GameLogic());
+            this.board = new Board(this.start);
+            this.hashes = new long[Symmetry.COUNT];
+            this.positions = new HashMap<>();
+        }
+
+        /**
+         * @param result  As stored by {@link GameRecordWriter}. Draws and unfinished games count as played without a win.
+         * @param moves   Packed moves from the starting position, captures and flags are ignored.
+         * @throws IllegalArgumentException If the moves do not follow the rules.
+         */
+        public void add(int result, MoveList moves) {
+            this.board.copyFrom(this.start);
+            for (int ply = 0; ply < moves.size() && ply < this.maxPlies; ply++) {
+                int move = moves.get(ply) & PackedMove.MOVE_MASK;
+                if (!this.board.isLegal(move)) {
+                    throw new IllegalArgumentException("Illegal move " + PackedMove.toString(move) + " at ply " + ply);
+                }
+
+                Symmetry.hashes(this.board, this.hashes);
+                long hash = this.hashes[Symmetry.canonicalTransform(this.hashes)];
+
+                // Symmetric positions have several canonical frames, fold the move over all of them
+                int key = Integer.MAX_VALUE, transforms = Symmetry.canonicalTransforms(this.hashes);
+                for (int transform = 0; transform < Symmetry.COUNT; transform++) {
+                    if ((transforms & 1 << transform) != 0) {
+                        key = Math.min(key, Symmetry.move(transform, move));
+                    }
+                }
+
+                int[] stats = this.positions.computeIfAbsent(hash, k -> new HashMap<>()).computeIfAbsent(key, k -> new int[2]);
+                stats[0]++;
+                if (result == (this.board.isAttackerTurn() ? Board.ATTACKER_WON : Board.DEFENDER_WON)) {
+                    stats[1]++;
+                }
+
+                this.board.make(move);
+            }
+        }
+
+        /**
+         * Add every remaining game of an archive written by {@link GameRecordWriter}.
+         */
+        public void addAll(GameRecordReader reader) throws IOException {
+            MoveList moves = new MoveList();
+            while (reader.next()) {
+                moves.clear();
+                for (int ply = 0; ply < reader.getPlies() && ply < this.maxPlies; ply++) {
+                    moves.add(reader.getMove(ply));
+                }
+                this.add(reader.getResult(), moves);
+            }
+        }
+
+        /**
+         * Write the book, leaving out moves played in fewer than the given number of games.
+         *
+         * @return The number of entries written.
+         */
+        public int write(Path path, int minGames) throws IOException {
+            List<Long> hashes = new ArrayList<>(this.positions.keySet());
+            hashes.sort(null);
+
+            int size = 0;
+            for (Long hash : hashes) {
+                for (int[] stats : this.positions.get(hash).values()) {
+                    if (stats[0] >= minGames) {
+                        size++;
+                    }
+                }
+            }
+
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+                out.writeLong(MAGIC);
+                out.writeInt(size);
+                for (Long hash : hashes) {
+                    Map<Integer, int[]> moves = this.positions.get(hash);
+                    List<Integer> sorted = new ArrayList<>(moves.keySet());
+                    sorted.sort(null);
+
+                    for (Integer move : sorted) {
+                        int[] stats = moves.get(move);
+                        if (stats[0] < minGames) {
+                            continue;
+                        }
+
+                        out.writeLong(hash);
+                        out.writeShort(move);
+                        out.writeInt(stats[0]);
+                        out.writeInt(stats[1]);
+                    }
+                }
+            }
+
+            return size;
+        }
+    }
+
+    /**
+     * Usage: OpeningBook book maxPlies minGames archive..., builds a book from archives written by {@link GameRecordWriter}.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 4) {
+            System.err.println("Usage: OpeningBook book maxPlies minGames archive...");
+            System.exit(1);
+        }
+
+        Builder builder = new Builder(Integer.parseInt(args[1]));
+        for (int i = 3; i < args.length; i++) {
+            try (GameRecordReader reader = new GameRecordReader(new FileInputStream(args[i]))) {
+                builder.addAll(reader);
+            }
+        }
+
+        int size = builder.write(Path.of(args[0]), Integer.parseInt(args[2]));
+        System.out.printf("Book entries: %,d%n", size);
+    }
+}
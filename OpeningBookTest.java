@@ -0,0 +1,108 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OpeningBookTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void probesTransformedPositions() throws IOException {
+        Board start = new Board(new GameLogic());
+        MoveList won = TestGames.playRandomMoves(new Board(start), new Random(1), 6);
+
+        // A first move leading to a different position, whatever the symmetry
+        int other = SearchEngine.NO_MOVE;
+        int[] moves = new int[GameLogic.MAX_LEGAL_MOVES];
+        for (int i = 0, count = start.generateMoves(moves); i < count && other == SearchEngine.NO_MOVE; i++) {
+            if (canonicalAfter(start, moves[i]) != canonicalAfter(start, won.get(0))) {
+                other = moves[i];
+            }
+        }
+        MoveList lost = new MoveList();
+        lost.add(other);
+
+        // The attackers won with the first game three times and lost with the other
+        OpeningBook.Builder builder = new OpeningBook.Builder(4);
+        for (int i = 0; i < 3; i++) {
+            builder.add(Board.ATTACKER_WON, won);
+        }
+        builder.add(Board.DEFENDER_WON, lost);
+        OpeningBook book = write(builder, 1);
+        assertEquals(5, book.size());
+
+        // The starting position is symmetric, so any image of the winning move will do
+        int first = book.probe(start);
+        assertTrue(start.isLegal(first));
+        assertEquals(canonicalAfter(start, won.get(0)), canonicalAfter(start, first));
+
+        // Every transform of the games reaches a position the book knows, and its answer is the transformed book move
+        for (int transform = 0; transform < Symmetry.COUNT; transform++) {
+            Board board = new Board(start);
+            for (int ply = 0; ply < 4; ply++) {
+                int move = book.probe(board);
+                assertNotEquals(SearchEngine.NO_MOVE, move, "transform " + transform + " at ply " + ply);
+                assertEquals(canonicalAfter(board, Symmetry.move(transform, won.get(ply))), canonicalAfter(board, move));
+                board.make(Symmetry.move(transform, won.get(ply)));
+            }
+
+            // Past the recorded plies the book has nothing
+            assertEquals(SearchEngine.NO_MOVE, book.probe(board));
+        }
+    }
+
+    @Test
+    void leavesOutRareMoves() throws IOException {
+        Board start = new Board(new GameLogic());
+        MoveList common = TestGames.playRandomMoves(new Board(start), new Random(2), 3), rare = TestGames.playRandomMoves(new Board(start), new Random(3), 3);
+        assertNotEquals(canonicalAfter(start, common.get(0)), canonicalAfter(start, rare.get(0)));
+
+        // Archived games are read back through the record format
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GameRecordWriter writer = new GameRecordWriter(out)) {
+            writer.writeGame(Board.DEFENDER_WON, common);
+            writer.writeGame(Board.ONGOING, common);
+            writer.writeGame(Board.ATTACKER_WON, rare);
+        }
+        OpeningBook.Builder builder = new OpeningBook.Builder(2);
+        try (GameRecordReader reader = new GameRecordReader(new ByteArrayInputStream(out.toByteArray()))) {
+            builder.addAll(reader);
+        }
+
+        OpeningBook book = write(builder, 2);
+        assertEquals(2, book.size());
+        assertEquals(canonicalAfter(start, common.get(0)), canonicalAfter(start, book.probe(start)));
+
+        Board board = new Board(start);
+        board.make(rare.get(0));
+        assertEquals(SearchEngine.NO_MOVE, book.probe(board));
+    }
+
+    @Test
+    void rejectsIllegalGames() {
+        MoveList moves = new MoveList();
+        moves.add(PackedMove.of(PackedMove.square(3, 0), PackedMove.square(4, 1)));
+
+        assertThrows(IllegalArgumentException.class, () -> new OpeningBook.Builder(4).add(Board.ATTACKER_WON, moves));
+    }
+
+    private OpeningBook write(OpeningBook.Builder builder, int minGames) throws IOException {
+        Path path = this.directory.resolve("book");
+        builder.write(path, minGames);
+        return OpeningBook.load(path);
+    }
+
+    // The canonical hash of the position the move leads to
+    private static long canonicalAfter(Board board, int move) {
+        Board after = new Board(board);
+        after.make(move);
+        return Symmetry.canonicalHash(after);
+    }
+}
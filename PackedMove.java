@@ -0,0 +1,81 @@
+/**
+ * Helpers for moves packed into a single int, as written by {@link GameLogic#generateLegalMoves(int[])}.
+ * Squares are numbered x * board size + y. From the lowest bit up a move holds:
+ * <ul>
+ *     <li>8 bits for the destination square</li>
+ *     <li>8 bits for the origin square</li>
+ *     <li>4 bits of captures, one per direction: up, down, left and right as in GameLogic</li>
+ *     <li>the remaining bits are left for callers' own flags</li>
+ * </ul>
+ */
+public final class PackedMove {
+    public static final int UP = 0;
+    public static final int DOWN = 1;
+    public static final int LEFT = 2;
+    public static final int RIGHT = 3;
+
+    // Bits below this hold the move itself, above it the capture mask and flags
+    public static final int MOVE_MASK = 0xFFFF;
+
+    private static final int SQUARE_BITS = 8;
+    private static final int SQUARE_MASK = (1 << SQUARE_BITS) - 1;
+    private static final int CAPTURE_SHIFT = 2 * SQUARE_BITS;
+    private static final int CAPTURE_MASK = 0xF;
+
+    private PackedMove() {}
+
+    public static int square(int x, int y) {
+        return x * GameLogic.BOARD_SIZE + y;
+    }
+
+    public static int square(Position position) {
+        return square(position.x(), position.y());
+    }
+
+    public static int x(int square) {
+        return square / GameLogic.BOARD_SIZE;
+    }
+
+    public static int y(int square) {
+        return square % GameLogic.BOARD_SIZE;
+    }
+
+    public static Position toPosition(int square) {
+        return Position.of(x(square), y(square));
+    }
+
+    public static int of(int from, int to) {
+        return (from << SQUARE_BITS) | to;
+    }
+
+    public static int from(int move) {
+        return (move >>> SQUARE_BITS) & SQUARE_MASK;
+    }
+
+    public static int to(int move) {
+        return move & SQUARE_MASK;
+    }
+
+    /**
+     * @param captures One bit per direction, see {@link #captured(int, int)}.
+     */
+    public static int withCaptures(int move, int captures) {
+        return (move & ~(CAPTURE_MASK << CAPTURE_SHIFT)) | (captures << CAPTURE_SHIFT);
+    }
+
+    public static int captures(int move) {
+        return (move >>> CAPTURE_SHIFT) & CAPTURE_MASK;
+    }
+
+    public static boolean captured(int move, int direction) {
+        return (captures(move) & (1 << direction)) != 0;
+    }
+
+    public static int captureCount(int move) {
+        return Integer.bitCount(captures(move));
+    }
+
+    public static String toString(int move) {
+        return toPosition(from(move)) + " -> " + toPosition(to(move));
+    }
+}
@@ -0,0 +1,59 @@
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PackedMoveTest {
+    @Test
+    void packsSquaresAndCaptures() {
+        for (int from = 0; from < Board.SQUARES; from++) {
+            for (int to = 0; to < Board.SQUARES; to += 7) {
+                int move = PackedMove.of(from, to);
+                assertEquals(from, PackedMove.from(move));
+                assertEquals(to, PackedMove.to(move));
+                assertEquals(0, PackedMove.captures(move));
+                assertEquals(move, move & PackedMove.MOVE_MASK);
+
+                for (int captures = 0; captures < 16; captures++) {
+                    int captured = PackedMove.withCaptures(move, captures);
+                    assertEquals(from, PackedMove.from(captured));
+                    assertEquals(to, PackedMove.to(captured));
+                    assertEquals(captures, PackedMove.captures(captured));
+                    assertEquals(Integer.bitCount(captures), PackedMove.captureCount(captured));
+                    assertEquals(move, captured & PackedMove.MOVE_MASK);
+                }
+            }
+        }
+    }
+
+    @Test
+    void capturesKeepTheirDirectionAndFlags() {
+        int flag = 1 << 24;
+        int move = PackedMove.withCaptures(PackedMove.of(PackedMove.square(3, 0), PackedMove.square(3, 5)) | flag,
+                1 << PackedMove.UP | 1 << PackedMove.RIGHT);
+
+        assertTrue(PackedMove.captured(move, PackedMove.UP));
+        assertFalse(PackedMove.captured(move, PackedMove.DOWN));
+        assertFalse(PackedMove.captured(move, PackedMove.LEFT));
+        assertTrue(PackedMove.captured(move, PackedMove.RIGHT));
+        assertEquals(flag, move & flag);
+
+        // Replacing the captures leaves the flags alone
+        move = PackedMove.withCaptures(move, 1 << PackedMove.DOWN);
+        assertEquals(1 << PackedMove.DOWN, PackedMove.captures(move));
+        assertEquals(flag, move & flag);
+        assertEquals("(3, 0) -> (3, 5)", PackedMove.toString(move));
+    }
+
+    @Test
+    void squaresMatchPositions() {
+        for (int x = 0; x < GameLogic.BOARD_SIZE; x++) {
+            for (int y = 0; y < GameLogic.BOARD_SIZE; y++) {
+                int square = PackedMove.square(x, y);
+                assertEquals(square, PackedMove.square(Position.of(x, y)));
+                assertEquals(x, PackedMove.x(square));
+                assertEquals(y, PackedMove.y(square));
+                assertSame(Position.of(x, y), PackedMove.toPosition(square));
+            }
+        }
+    }
+}
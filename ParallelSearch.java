@@ -0,0 +1,111 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Lazy SMP search: every thread searches its own copy of the same position and they share one
+ * {@link TranspositionTable}, so results found by one thread cut off work in the others.
+ * The calling thread's search decides the move, helper threads only feed the table.
+ * With one thread this is exactly a {@link SearchEngine} search, and therefore deterministic.
+ */
+public class ParallelSearch implements AutoCloseable {
+    private final SearchEngine[] engines;
+    private final TranspositionTable table;
+    private final ExecutorService helpers;
+
+    public ParallelSearch(int threads, int maxDepth, long timeLimitMillis, TranspositionTable table) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("At least one thread is needed");
+        }
+
+        this.table = table;
+        this.engines = new SearchEngine[threads];
+        for (int i = 0; i < threads; i++) {
+            this.engines[i] = new SearchEngine(maxDepth, timeLimitMillis, table);
+        }
+
+        this.helpers = threads == 1 ? null : Executors.newFixedThreadPool(threads - 1, runnable -> {
+            Thread thread = new Thread(runnable, "search-helper");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public int getThreads() {
+        return this.engines.length;
+    }
+
+    /**
+     * Consult the book before searching, see {@link SearchEngine#setOpeningBook(OpeningBook)}.
+     */
+    public void setOpeningBook(OpeningBook book) {
+        this.engines[0].setOpeningBook(book);
+    }
+
+    /**
+     * Search the current position of the game and play the best move for the side to move.
+     */
+    public SearchResult play(GameLogic game) {
+        SearchResult result = this.search(new Board(game));
+        if (result.move() != SearchEngine.NO_MOVE) {
+            game.move(PackedMove.toPosition(PackedMove.from(result.move())), PackedMove.toPosition(PackedMove.to(result.move())));
+        }
+
+        return result;
+    }
+
+    /**
+     * Search the given board. The board is left as it was found, and the node count covers all threads.
+     */
+    public SearchResult search(Board board) {
+        if (this.helpers == null) {
+            return this.engines[0].search(board);
+        }
+
+        SearchResult booked = this.engines[0].probeBook(board);
+        if (booked != null) {
+            return booked;
+        }
+
+        // One generation for the whole search, so no thread ages the entries another thread just stored
+        this.table.newSearch();
+        AtomicBoolean stop = new AtomicBoolean();
+        List<Future<SearchResult>> running = new ArrayList<>();
+        for (int i = 1; i < this.engines.length; i++) {
+            SearchEngine engine = this.engines[i];
+            Board copy = new Board(board);
+
+            // Half of the helpers skip the first iteration so threads spread over different depths
+            int firstDepth = 1 + (i & 1);
+            running.add(this.helpers.submit(() -> engine.search(copy, firstDepth, stop)));
+        }
+
+        SearchResult result = this.engines[0].search(board, 1, stop);
+        stop.set(true);
+
+        long nodes = result.nodes();
+        for (Future<SearchResult> helper : running) {
+            try {
+                nodes += helper.get().nodes();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Search helper failed", e.getCause());
+            }
+        }
+
+        return new SearchResult(result.move(), result.score(), result.depth(), nodes, result.elapsedNanos());
+    }
+
+    @Override
+    public void close() {
+        if (this.helpers != null) {
+            this.helpers.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelSearchTest {
+    @Test
+    void oneThreadMatchesSearchEngine() {
+        GameLogic game = TestGames.quietGame();
+        Random random = new Random(1);
+        try (ParallelSearch parallel = new ParallelSearch(1, 3, 0, new TranspositionTable(4))) {
+            SearchEngine engine = new SearchEngine(3, 0, new TranspositionTable(4));
+            for (int position = 0; position < 8 && !game.isGameFinished(); position++) {
+                Board board = new Board(game);
+                SearchResult expected = engine.search(board), actual = parallel.search(board);
+                assertEquals(expected.move(), actual.move(), "ply " + game.getPly());
+                assertEquals(expected.score(), actual.score());
+                assertEquals(expected.depth(), actual.depth());
+                assertEquals(expected.nodes(), actual.nodes());
+                TestGames.playRandomMoves(game, random, 5);
+            }
+        }
+    }
+
+    @Test
+    void helpersAgreeOnTheKingEscape() {
+        Board board = TestGames.position(false, SearchEngineTest.KING_ESCAPE);
+        try (ParallelSearch parallel = new ParallelSearch(4, 3, 0, new TranspositionTable(4))) {
+            SearchResult result = parallel.search(board);
+            assertEquals(PackedMove.of(PackedMove.square(3, 0), PackedMove.square(0, 0)), result.move() & PackedMove.MOVE_MASK);
+            assertEquals(SearchEngine.WIN_SCORE - 1, result.score());
+            assertEquals(0, board.getPlies());
+        }
+        assertThrows(IllegalArgumentException.class, () -> new ParallelSearch(0, 3, 0, new TranspositionTable(1)));
+    }
+}
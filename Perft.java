@@ -0,0 +1,161 @@
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Counts the leaf nodes of the move tree to a fixed depth. The counts measure make/unmake throughput and,
+ * since they change whenever a rule is applied differently, catch mistakes in faster board representations.
+ * {@link #crossCheck(int, int, long)} also compares {@link Board} against {@link GameLogic} move by move.
+ */
+public class Perft {
+    private final int[][] moves;
+
+    public Perft(int maxDepth) {
+        this.moves = new int[Math.max(1, maxDepth)][GameLogic.MAX_LEGAL_MOVES];
+    }
+
+    /**
+     * @return The number of move sequences of the given length from this position. The board is left as it was found.
+     */
+    public long count(Board board, int depth) {
+        if (depth == 0) {
+            return 1;
+        }
+
+        int[] plyMoves = this.moves[depth - 1];
+        int count = board.generateMoves(plyMoves);
+
+        // The last level only needs the number of moves
+        if (depth == 1) {
+            return count;
+        }
+
+        long nodes = 0;
+        for (int i = 0; i < count; i++) {
+            board.make(plyMoves[i]);
+            nodes += this.count(board, depth - 1);
+            board.unmake();
+        }
+
+        return nodes;
+    }
+
+    /**
+     * Count the subtree of every root move separately.
+     *
+     * @param rootMoves Receives the root moves, at least {@link GameLogic#MAX_LEGAL_MOVES} entries.
+     * @param parallel  Search the subtrees on the common fork-join pool, each on its own copy of the board.
+     * @return The node count under each root move, in the order of rootMoves.
+     */
+    public static long[] divide(Board board, int depth, int[] rootMoves, boolean parallel) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("Depth must be at least 1");
+        }
+
+        int count = board.generateMoves(rootMoves);
+        IntStream roots = IntStream.range(0, count);
+        if (parallel) {
+            roots = roots.parallel();
+        }
+
+        return roots.mapToLong(i -> {
+            Board copy = new Board(board);
+            copy.make(rootMoves[i]);
+            return new Perft(depth - 1).count(copy, depth - 1);
+        }).toArray();
+    }
+
+    /**
+     * Play random games on a {@link GameLogic} and a {@link Board} side by side, comparing the legal moves,
+     * every square, the turn and the result after each move.
+     *
+     * @return A description of the first difference, or null if there was none.
+     */
+    public static String crossCheck(int games, int maxPlies, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        int[] expected = new int[GameLogic.MAX_LEGAL_MOVES], actual = new int[GameLogic.MAX_LEGAL_MOVES];
+
+        for (int game = 0; game < games; game++) {
+            GameLogic reference = new GameLogic();
+            reference.setReportSink(NoOpReportSink.INSTANCE);
+            Board board = new Board(reference);
+
+            for (int ply = 0; ply < maxPlies && !reference.isGameFinished(); ply++) {
+                int count = reference.generateLegalMoves(expected);
+                Arrays.sort(expected, 0, count);
+                int boardCount = board.generateMoves(actual);
+                Arrays.sort(actual, 0, boardCount);
+                if (!Arrays.equals(expected, 0, count, actual, 0, boardCount)) {
+                    return "Game " + game + ", ply " + ply + ": legal moves differ";
+                }
+                if (count == 0) {
+                    break;
+                }
+
+                int move = expected[random.nextInt(count)];
+                reference.move(PackedMove.toPosition(PackedMove.from(move)), PackedMove.toPosition(PackedMove.to(move)));
+                board.make(move);
+
+                String difference = compare(reference, board);
+                if (difference != null) {
+                    return "Game " + game + ", ply " + ply + " after " + PackedMove.toString(move) + ": " + difference;
+                }
+            }
+        }
+
+        return null;
+    }
+
+    private static String compare(GameLogic reference, Board board) {
+        Board expected = new Board(reference);
+        for (int square = 0; square < Board.SQUARES; square++) {
+            if (expected.pieceAt(square) != board.pieceAt(square)) {
+                return "square " + PackedMove.toPosition(square) + " differs";
+            }
+        }
+        if (expected.isAttackerTurn() != board.isAttackerTurn()) {
+            return "turn differs";
+        }
+        if (expected.getResult() != board.getResult()) {
+            return "result differs";
+        }
+        if (expected.getHash() != board.getHash()) {
+            return "hash differs";
+        }
+
+        return null;
+    }
+
+    /**
+     * Usage: Perft depth [parallel], or Perft check [games] to cross-check Board against GameLogic.
+     */
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.err.println("Usage: Perft depth [parallel] | Perft check [games]");
+            System.exit(1);
+        }
+
+        if (args[0].equals("check")) {
+            int games = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+            String difference = crossCheck(games, 500, 1);
+            System.out.println(difference == null ? "No differences in " + games + " games" : difference);
+            System.exit(difference == null ? 0 : 1);
+        }
+
+        int depth = Integer.parseInt(args[0]);
+        boolean parallel = args.length > 1 && Boolean.parseBoolean(args[1]);
+        Board board = new Board(new GameLogic());
+        int[] rootMoves = new int[GameLogic.MAX_LEGAL_MOVES];
+
+        long start = System.nanoTime();
+        long[] counts = divide(board, depth, rootMoves, parallel);
+        long elapsed = System.nanoTime() - start;
+
+        long total = 0;
+        for (int i = 0; i < counts.length; i++) {
+            System.out.println(PackedMove.toString(rootMoves[i]) + ": " + counts[i]);
+            total += counts[i];
+        }
+        System.out.printf("Depth %d: %,d nodes in %.2f s, %,.0f nodes/s%n", depth, total, elapsed / 1e9, total * 1e9 / elapsed);
+    }
+}
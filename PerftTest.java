@@ -0,0 +1,41 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PerftTest {
+    // Leaf counts from the starting position, the same when GameLogic plays every move
+    private static final long[] START_COUNTS = {1, 116, 6_788, 809_008};
+
+    @Test
+    void countsFromTheStart() {
+        Board board = new Board(new GameLogic());
+        long hash = board.getHash();
+        Perft perft = new Perft(START_COUNTS.length);
+        for (int depth = 0; depth < START_COUNTS.length; depth++) {
+            assertEquals(START_COUNTS[depth], perft.count(board, depth), "depth " + depth);
+            assertEquals(hash, board.getHash());
+            assertEquals(0, board.getPlies());
+        }
+    }
+
+    @Test
+    void divideAddsUpToTheCount() {
+        Board board = new Board(new GameLogic());
+        int depth = START_COUNTS.length - 1;
+        int[] rootMoves = new int[GameLogic.MAX_LEGAL_MOVES];
+        long[] serial = Perft.divide(board, depth, rootMoves, false);
+        long[] parallel = Perft.divide(board, depth, rootMoves, true);
+
+        assertEquals(START_COUNTS[1], serial.length);
+        assertArrayEquals(serial, parallel);
+        assertEquals(START_COUNTS[depth], Arrays.stream(serial).sum());
+        assertThrows(IllegalArgumentException.class, () -> Perft.divide(board, 0, rootMoves, false));
+    }
+
+    @Test
+    void boardAgreesWithGameLogic() {
+        assertNull(Perft.crossCheck(300, 500, 1));
+    }
+}
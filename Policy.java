@@ -0,0 +1,68 @@
+import java.util.SplittableRandom;
+
+/**
+ * Move selection strategy for headless play on a {@link Board}.
+ * Policies may keep per-game search state, so every thread needs its own instance.
+ */
+public interface Policy {
+
+    /**
+     * Choose a move for the side to move.
+     *
+     * @param board  The position, which must be left as it was found.
+     * @param random Source of randomness for this game.
+     * @return The chosen move packed with {@link PackedMove}, or {@link SearchEngine#NO_MOVE} if there is none.
+     */
+    int selectMove(Board board, SplittableRandom random);
+
+    /**
+     * Uniformly random legal moves.
+     */
+    static Policy random() {
+        int[] moves = new int[GameLogic.MAX_LEGAL_MOVES];
+        return (board, random) -> {
+            int count = board.generateMoves(moves);
+            return count == 0 ? SearchEngine.NO_MOVE : moves[random.nextInt(count)];
+        };
+    }
+
+    /**
+     * Winning moves first, then the move that captures the most pieces, ties broken at random.
+     */
+    static Policy greedyCapture() {
+        int[] moves = new int[GameLogic.MAX_LEGAL_MOVES];
+        return (board, random) -> {
+            int count = board.generateMoves(moves);
+            if (count == 0) {
+                return SearchEngine.NO_MOVE;
+            }
+
+            int opponents = board.isAttackerTurn() ? board.getDefenders() : board.getAttackers();
+            int best = SearchEngine.NO_MOVE, bestGain = -1, ties = 0;
+            for (int i = 0; i < count; i++) {
+                board.make(moves[i]);
+                int gain = board.isFinished() ? Integer.MAX_VALUE : opponents - (board.isAttackerTurn() ? board.getAttackers() : board.getDefenders());
+                board.unmake();
+
+                if (gain > bestGain) {
+                    best = moves[i];
+                    bestGain = gain;
+                    ties = 1;
+                } else if (gain == bestGain && random.nextInt(++ties) == 0) {
+                    // Reservoir sampling keeps every tied move equally likely
+                    best = moves[i];
+                }
+            }
+
+            return best;
+        };
+    }
+
+    /**
+     * Fixed depth {@link SearchEngine} search.
+     */
+    static Policy search(int depth, int tableMegabytes) {
+        SearchEngine engine = new SearchEngine(depth, 0, new TranspositionTable(tableMegabytes));
+        return (board, random) -> engine.search(board).move();
+    }
+}
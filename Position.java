@@ -1,4 +1,28 @@
 public record Position(int x, int y) {
+    // Shared instances for the board and a two square margin around it, which covers every neighbor GameLogic looks at
+    private static final int MARGIN = 2;
+    private static final int SPAN = GameLogic.BOARD_SIZE + 2 * MARGIN;
+    private static final Position[] INTERNED = new Position[SPAN * SPAN];
+
+    static {
+        for (int x = 0; x < SPAN; x++) {
+            for (int y = 0; y < SPAN; y++) {
+                INTERNED[x * SPAN + y] = new Position(x - MARGIN, y - MARGIN);
+            }
+        }
+    }
+
+    /**
+     * Get the shared instance for these coordinates, only allocating when they are far off the board.
+     */
+    public static Position of(int x, int y) {
+        if (x < -MARGIN || y < -MARGIN || x >= SPAN - MARGIN || y >= SPAN - MARGIN) {
+            return new Position(x, y);
+        }
+
+        return INTERNED[(x + MARGIN) * SPAN + y + MARGIN];
+    }
+
     public int distance(Position other) {
         return Math.abs(this.x() - other.x()) + Math.abs(this.y() - other.y());
     }
@@ -0,0 +1,109 @@
+import java.util.Arrays;
+
+/**
+ * Stack of the {@link Zobrist} hashes of every position of a game, counting how often each one occurred.
+ * Pushing and popping are O(1), so repetitions can be checked on every move.
+ */
+final class PositionHistory {
+    private long[] stack;
+    private int size;
+
+    // Open addressing table from hash to occurrences, entries whose count dropped to 0 are reused by the same hash
+    private long[] keys;
+    private int[] counts;
+    private int used;
+
+    PositionHistory() {
+        this.stack = new long[256];
+        this.keys = new long[512];
+        this.counts = new int[512];
+    }
+
+    /**
+     * @return How often the position has occurred, including this time.
+     */
+    int push(long hash) {
+        if (this.size == this.stack.length) {
+            this.stack = Arrays.copyOf(this.stack, this.size * 2);
+        }
+        this.stack[this.size++] = hash;
+
+        int slot = this.slot(hash);
+        if (this.counts[slot] == 0 && this.keys[slot] != hash) {
+            this.keys[slot] = hash;
+            this.used++;
+        }
+        int count = ++this.counts[slot];
+
+        if (this.used > this.keys.length / 2) {
+            this.rehash();
+        }
+
+        return count;
+    }
+
+    /**
+     * Forget the last position pushed.
+     */
+    void pop() {
+        this.counts[this.slot(this.stack[--this.size])]--;
+    }
+
+    /**
+     * @return How often the last position pushed has occurred.
+     */
+    int repetitions() {
+        return this.size == 0 ? 0 : this.counts[this.slot(this.stack[this.size - 1])];
+    }
+
+    int size() {
+        return this.size;
+    }
+
+    void clear() {
+        this.size = 0;
+        this.used = 0;
+        Arrays.fill(this.keys, 0);
+        Arrays.fill(this.counts, 0);
+    }
+
+    /**
+     * @return The entry holding the hash, or the free entry where it would go.
+     */
+    private int slot(long hash) {
+        int mask = this.keys.length - 1;
+        int slot = (int) (hash ^ hash >>> 32) & mask;
+        while ((this.counts[slot] != 0 || this.keys[slot] != 0) && this.keys[slot] != hash) {
+            slot = (slot + 1) & mask;
+        }
+
+        return slot;
+    }
+
+    private void rehash() {
+        long[] keys = this.keys;
+        int[] counts = this.counts;
+        int live = 0;
+        for (int count : counts) {
+            if (count != 0) {
+                live++;
+            }
+        }
+
+        // Grow only if live positions fill a quarter of the table, otherwise clearing out the dead entries is enough
+        int capacity = live * 4 > keys.length ? keys.length * 2 : keys.length;
+        this.keys = new long[capacity];
+        this.counts = new int[capacity];
+        this.used = 0;
+
+        // Only positions still on the stack are kept
+        for (int i = 0; i < keys.length; i++) {
+            if (counts[i] != 0) {
+                int slot = this.slot(keys[i]);
+                this.keys[slot] = keys[i];
+                this.counts[slot] = counts[i];
+                this.used++;
+            }
+        }
+    }
+}
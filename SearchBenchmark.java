@@ -0,0 +1,30 @@
+/**
+ * Reports search speed for 1, 2, 4, ... threads up to the number of cores, each searching the starting
+ * position for the same amount of time with a fresh transposition table.
+ */
+public class SearchBenchmark {
+    private static final long TIME_LIMIT_MILLIS = 3000;
+    private static final int TABLE_MEGABYTES = 256;
+
+    public static void main(String[] args) {
+        int cores = Runtime.getRuntime().availableProcessors();
+        Board board = new Board(new GameLogic());
+        double singleThreaded = 0;
+
+        for (int threads = 1; ; threads = Math.min(threads * 2, cores)) {
+            try (ParallelSearch search = new ParallelSearch(threads, SearchEngine.MAX_DEPTH, TIME_LIMIT_MILLIS, new TranspositionTable(TABLE_MEGABYTES))) {
+                SearchResult result = search.search(board);
+                if (threads == 1) {
+                    singleThreaded = result.nodesPerSecond();
+                }
+
+                System.out.printf("%2d threads: %,14.0f nodes/s  %5.2fx  depth %d%n",
+                        threads, result.nodesPerSecond(), result.nodesPerSecond() / singleThreaded, result.depth());
+            }
+
+            if (threads == cores) {
+                break;
+            }
+        }
+    }
+}
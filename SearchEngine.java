@@ -0,0 +1,305 @@
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Computer player for either side of a {@link GameLogic}, using iterative deepening alpha-beta (negamax).
+ * Searches a {@link Board} copy of the game so the game itself is only touched to play the chosen move.
+ */
+public class SearchEngine {
+    public static final int NO_MOVE = -1;
+    public static final int WIN_SCORE = 1_000_000;
+    public static final int MAX_DEPTH = 64;
+
+    private static final int INFINITY = WIN_SCORE + 1;
+    private static final int TIME_CHECK_INTERVAL = 1023;
+    private static final int DEFAULT_TABLE_MEGABYTES = 16;
+
+    // Evaluation weights, from the defender's point of view
+    private static final int DEFENDER_VALUE = 180;
+    private static final int ATTACKER_VALUE = 100;
+    private static final int KING_CORNER_DISTANCE = 12;
+    private static final int KING_MOBILITY = 6;
+    private static final int KING_NEIGHBOR_ATTACKER = 40;
+
+    private final int maxDepth;
+    private final long timeLimitNanos;
+    private final TranspositionTable table;
+    private final int[][] moves;
+    private long nodes, deadline;
+    private boolean stopped;
+    private AtomicBoolean stopSignal;
+    private OpeningBook book;
+
+    /**
+     * @param maxDepth        Deepest iteration to search, at most {@link #MAX_DEPTH}.
+     * @param timeLimitMillis Time budget per search, or 0 to only stop on depth.
+     */
+    public SearchEngine(int maxDepth, long timeLimitMillis) {
+        this(maxDepth, timeLimitMillis, new TranspositionTable(DEFAULT_TABLE_MEGABYTES));
+    }
+
+    /**
+     * @param table Transposition table to use, sized by the caller.
+     */
+    public SearchEngine(int maxDepth, long timeLimitMillis, TranspositionTable table) {
+        if (maxDepth < 1 || maxDepth > MAX_DEPTH) {
+            throw new IllegalArgumentException("Depth must be between 1 and " + MAX_DEPTH);
+        }
+
+        this.maxDepth = maxDepth;
+        this.timeLimitNanos = timeLimitMillis * 1_000_000;
+        this.table = table;
+        this.moves = new int[MAX_DEPTH + 1][GameLogic.MAX_LEGAL_MOVES];
+    }
+
+    /**
+     * Search the current position of the game and play the best move for the side to move.
+     */
+    public SearchResult play(GameLogic game) {
+        SearchResult result = this.search(new Board(game));
+        if (result.move() != NO_MOVE) {
+            game.move(PackedMove.toPosition(PackedMove.from(result.move())), PackedMove.toPosition(PackedMove.to(result.move())));
+        }
+
+        return result;
+    }
+
+    /**
+     * Search the given board. The board is left as it was found.
+     */
+    public SearchResult search(Board board) {
+        SearchResult booked = this.probeBook(board);
+        if (booked != null) {
+            return booked;
+        }
+
+        this.table.newSearch();
+        return this.search(board, 1, new AtomicBoolean());
+    }
+
+    /**
+     * Play positions found in the book straight from it instead of searching, or stop consulting a book with null.
+     */
+    public void setOpeningBook(OpeningBook book) {
+        this.book = book;
+    }
+
+    /**
+     * @return The book move as a result of depth 0, or null if there is no book move for the board.
+     */
+    SearchResult probeBook(Board board) {
+        if (this.book == null) {
+            return null;
+        }
+
+        long start = System.nanoTime();
+        int move = this.book.probe(board);
+        return move == NO_MOVE ? null : new SearchResult(move, 0, 0, 0, System.nanoTime() - start);
+    }
+
+    /**
+     * Search starting from the given depth, also stopping once the signal is raised from another thread.
+     * Leaves the table's generation alone, threads sharing a table start the search with one {@link TranspositionTable#newSearch()}.
+     */
+    SearchResult search(Board board, int firstDepth, AtomicBoolean stopSignal) {
+        long start = System.nanoTime();
+        this.nodes = 0;
+        this.stopped = false;
+        this.stopSignal = stopSignal;
+        this.deadline = start + this.timeLimitNanos;
+
+        int[] rootMoves = this.moves[0];
+        int count = board.generateMoves(rootMoves);
+        if (count == 0) {
+            return new SearchResult(NO_MOVE, 0, 0, 0, System.nanoTime() - start);
+        }
+
+        int bestMove = rootMoves[0], bestScore = -INFINITY, completedDepth = 0;
+        for (int depth = Math.min(firstDepth, this.maxDepth); depth <= this.maxDepth; depth++) {
+            int alpha = -INFINITY, iterationBest = NO_MOVE;
+            for (int i = 0; i < count; i++) {
+                int move = rootMoves[i];
+                board.make(move);
+                int score = board.isFinished() ? WIN_SCORE - 1 : -this.negamax(board, depth - 1, -INFINITY, -alpha, 1);
+                board.unmake();
+
+                if (this.stopped) {
+                    break;
+                }
+                if (score > alpha) {
+                    alpha = score;
+                    iterationBest = move;
+                }
+            }
+
+            // Results of an interrupted iteration are not trusted
+            if (this.stopped) {
+                break;
+            }
+
+            bestMove = iterationBest;
+            bestScore = alpha;
+            completedDepth = depth;
+            moveToFront(rootMoves, count, bestMove);
+            this.table.store(board.getHash(), bestMove, bestScore, depth, TranspositionTable.EXACT);
+
+            // Stop once a forced win or loss has been found
+            if (Math.abs(bestScore) >= WIN_SCORE - MAX_DEPTH) {
+                break;
+            }
+        }
+
+        return new SearchResult(bestMove, bestScore, completedDepth, this.nodes, System.nanoTime() - start);
+    }
+
+    private int negamax(Board board, int depth, int alpha, int beta, int ply) {
+        this.nodes++;
+        if ((this.nodes & TIME_CHECK_INTERVAL) == 0
+                && (this.stopSignal.get() || (this.timeLimitNanos > 0 && System.nanoTime() > this.deadline))) {
+            this.stopped = true;
+        }
+        if (this.stopped) {
+            return 0;
+        }
+
+        if (depth == 0) {
+            return evaluate(board);
+        }
+
+        // Reuse what an earlier visit of this position found
+        long hash = board.getHash();
+        long entry = this.table.probe(hash);
+        int hashMove = NO_MOVE;
+        if (entry != TranspositionTable.MISS) {
+            hashMove = TranspositionTable.move(entry);
+            if (TranspositionTable.depth(entry) >= depth) {
+                int score = fromTableScore(TranspositionTable.score(entry), ply);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.EXACT
+                        || (bound == TranspositionTable.LOWER_BOUND && score >= beta)
+                        || (bound == TranspositionTable.UPPER_BOUND && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+
+        int[] plyMoves = this.moves[ply];
+        int count = board.generateMoves(plyMoves);
+
+        // The rules have no outcome for a side that cannot move, score it as even
+        if (count == 0) {
+            return 0;
+        }
+        if (hashMove != NO_MOVE) {
+            moveToFront(plyMoves, count, hashMove);
+        }
+
+        int originalAlpha = alpha, bestMove = plyMoves[0];
+        for (int i = 0; i < count; i++) {
+            board.make(plyMoves[i]);
+
+            // Every game ending move is a win for the side that played it
+            int score = board.isFinished() ? WIN_SCORE - ply - 1 : -this.negamax(board, depth - 1, -beta, -alpha, ply + 1);
+            board.unmake();
+
+            if (this.stopped) {
+                return 0;
+            }
+            if (score >= beta) {
+                this.table.store(hash, plyMoves[i], toTableScore(score, ply), depth, TranspositionTable.LOWER_BOUND);
+                return score;
+            }
+            if (score > alpha) {
+                alpha = score;
+                bestMove = plyMoves[i];
+            }
+        }
+
+        int bound = alpha > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER_BOUND;
+        this.table.store(hash, bestMove, toTableScore(alpha, ply), depth, bound);
+        return alpha;
+    }
+
+    // Win scores are stored relative to the position rather than the root
+    private static int toTableScore(int score, int ply) {
+        if (score >= WIN_SCORE - MAX_DEPTH) {
+            return score + ply;
+        }
+        if (score <= -WIN_SCORE + MAX_DEPTH) {
+            return score - ply;
+        }
+
+        return score;
+    }
+
+    private static int fromTableScore(int score, int ply) {
+        if (score >= WIN_SCORE - MAX_DEPTH) {
+            return score - ply;
+        }
+        if (score <= -WIN_SCORE + MAX_DEPTH) {
+            return score + ply;
+        }
+
+        return score;
+    }
+
+    private static void moveToFront(int[] moves, int count, int move) {
+        for (int i = 0; i < count; i++) {
+            if (moves[i] == move) {
+                System.arraycopy(moves, 0, moves, 1, i);
+                moves[0] = move;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Static score of a position from the point of view of the side to move.
+     */
+    static int evaluate(Board board) {
+        int score = board.getDefenders() * DEFENDER_VALUE - board.getAttackers() * ATTACKER_VALUE;
+
+        int king = board.getKingSquare();
+        int x = PackedMove.x(king), y = PackedMove.y(king), edge = GameLogic.BOARD_SIZE - 1;
+        score -= KING_CORNER_DISTANCE * (Math.min(x, edge - x) + Math.min(y, edge - y));
+        score += KING_MOBILITY * kingMobility(board, x, y);
+        score -= KING_NEIGHBOR_ATTACKER * kingNeighborAttackers(board, x, y);
+
+        return board.isAttackerTurn() ? -score : score;
+    }
+
+    private static int kingMobility(Board board, int x, int y) {
+        int mobility = 0;
+        for (int i = x + 1; i < GameLogic.BOARD_SIZE && board.pieceAt(PackedMove.square(i, y)) == Board.EMPTY; i++) {
+            mobility++;
+        }
+        for (int i = x - 1; i >= 0 && board.pieceAt(PackedMove.square(i, y)) == Board.EMPTY; i--) {
+            mobility++;
+        }
+        for (int i = y + 1; i < GameLogic.BOARD_SIZE && board.pieceAt(PackedMove.square(x, i)) == Board.EMPTY; i++) {
+            mobility++;
+        }
+        for (int i = y - 1; i >= 0 && board.pieceAt(PackedMove.square(x, i)) == Board.EMPTY; i--) {
+            mobility++;
+        }
+
+        return mobility;
+    }
+
+    private static int kingNeighborAttackers(Board board, int x, int y) {
+        int count = 0;
+        if (x + 1 < GameLogic.BOARD_SIZE && board.pieceAt(PackedMove.square(x + 1, y)) == Board.ATTACKER) {
+            count++;
+        }
+        if (x > 0 && board.pieceAt(PackedMove.square(x - 1, y)) == Board.ATTACKER) {
+            count++;
+        }
+        if (y + 1 < GameLogic.BOARD_SIZE && board.pieceAt(PackedMove.square(x, y + 1)) == Board.ATTACKER) {
+            count++;
+        }
+        if (y > 0 && board.pieceAt(PackedMove.square(x, y - 1)) == Board.ATTACKER) {
+            count++;
+        }
+
+        return count;
+    }
+}
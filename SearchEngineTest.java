@@ -0,0 +1,54 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchEngineTest {
+    // The defenders to move, their king two empty squares from a corner and an attacker cutting off the other one
+    static final String[] KING_ESCAPE = {
+            "...K..A....",
+            "...........",
+            "...........",
+            "...........",
+            "...........",
+            "A.........A",
+            "...........",
+            "...D.......",
+            "...........",
+            "...........",
+            ".....A.....",
+    };
+
+    @Test
+    void findsTheKingEscape() {
+        Board board = TestGames.position(false, KING_ESCAPE);
+        long hash = board.getHash();
+        for (int depth = 1; depth <= 3; depth++) {
+            SearchResult result = new SearchEngine(depth, 0).search(board);
+            assertEquals(PackedMove.of(PackedMove.square(3, 0), PackedMove.square(0, 0)), result.move() & PackedMove.MOVE_MASK, "depth " + depth);
+            assertEquals(SearchEngine.WIN_SCORE - 1, result.score());
+            assertEquals(hash, board.getHash());
+            assertEquals(0, board.getPlies());
+        }
+    }
+
+    @Test
+    void playsTheMoveItFound() {
+        GameLogic game = TestGames.playRandomMoves(TestGames.quietGame(), new Random(1), 10);
+        Board before = new Board(game);
+        SearchResult result = new SearchEngine(2, 0).play(game);
+
+        assertEquals(11, game.getPly());
+        assertEquals(result.move() & PackedMove.MOVE_MASK, game.getMove(10) & PackedMove.MOVE_MASK);
+        before.make(result.move());
+        assertEquals(before.getHash(), game.getHash());
+    }
+
+    @Test
+    void noMoveOnceTheGameHasEnded() {
+        Board board = new Board(TestGames.playRandomMoves(TestGames.quietGame(), new Random(1), Integer.MAX_VALUE));
+        assertEquals(SearchEngine.NO_MOVE, new SearchEngine(2, 0).search(board).move());
+        assertThrows(IllegalArgumentException.class, () -> new SearchEngine(SearchEngine.MAX_DEPTH + 1, 0));
+    }
+}
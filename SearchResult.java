@@ -0,0 +1,14 @@
+/**
+ * Outcome of a {@link SearchEngine} search.
+ *
+ * @param move         The best move found, packed with {@link PackedMove}, or {@link SearchEngine#NO_MOVE}.
+ * @param score        Score of the move from the point of view of the side to move.
+ * @param depth        Last fully searched depth.
+ * @param nodes        Number of positions visited.
+ * @param elapsedNanos Wall clock time spent searching.
+ */
+public record SearchResult(int move, int score, int depth, long nodes, long elapsedNanos) {
+    public double nodesPerSecond() {
+        return this.elapsedNanos == 0 ? 0 : this.nodes * 1e9 / this.elapsedNanos;
+    }
+}
@@ -0,0 +1,180 @@
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Headless runner playing complete games between two policies on {@link Board}s, spread over several threads.
+ * Nothing is printed while games run, only {@link #main(String[])} reports the totals.
+ * Game i always uses the same random seed, so results only depend on the seed and not on the thread count.
+ */
+public class SelfPlay {
+    // Slot after the per result counts where a worker sums its plies
+    private static final int PLIES = Board.DRAW + 1;
+
+    private final Supplier<Policy> attacker, defender;
+    private final int maxPlies, threads;
+    private final long seed;
+    private GameRecordWriter archive;
+
+    public record Report(long games, long attackerWins, long defenderWins, long draws, long plies, long elapsedNanos) {
+        public double gamesPerSecond() {
+            return this.elapsedNanos == 0 ? 0 : this.games * 1e9 / this.elapsedNanos;
+        }
+
+        public double averageLength() {
+            return this.games == 0 ? 0 : (double) this.plies / this.games;
+        }
+
+        public double attackerWinRate() {
+            return this.games == 0 ? 0 : (double) this.attackerWins / this.games;
+        }
+
+        public double defenderWinRate() {
+            return this.games == 0 ? 0 : (double) this.defenderWins / this.games;
+        }
+    }
+
+    /**
+     * @param attacker Creates the attacker's policy, called once per thread.
+     * @param defender Creates the defender's policy, called once per thread.
+     * @param maxPlies Games still running after this many plies count as draws, as do games where a side cannot move.
+     */
+    public SelfPlay(Supplier<Policy> attacker, Supplier<Policy> defender, int maxPlies, int threads, long seed) {
+        this.attacker = attacker;
+        this.defender = defender;
+        this.maxPlies = maxPlies;
+        this.threads = threads;
+        this.seed = seed;
+    }
+
+    /**
+     * Write every game played from now on to the archive, or stop archiving with null.
+     * Worker threads take turns writing whole games, in the order they finish.
+     */
+    public void setArchive(GameRecordWriter archive) {
+        this.archive = archive;
+    }
+
+    public Report run(long games) {
+        long start = System.nanoTime();
+        AtomicLong nextGame = new AtomicLong();
+        ExecutorService workers = Executors.newFixedThreadPool(this.threads);
+
+        try {
+            List<Future<long[]>> results = new ArrayList<>();
+            for (int i = 0; i < this.threads; i++) {
+                results.add(workers.submit(() -> this.playGames(nextGame, games)));
+            }
+
+            long[] totals = new long[PLIES + 1];
+            for (Future<long[]> result : results) {
+                long[] counts = result.get();
+                for (int i = 0; i < totals.length; i++) {
+                    totals[i] += counts[i];
+                }
+            }
+
+            return new Report(games, totals[Board.ATTACKER_WON], totals[Board.DEFENDER_WON], totals[Board.DRAW],
+                    totals[PLIES], System.nanoTime() - start);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Self-play interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Self-play game failed", e.getCause());
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    private long[] playGames(AtomicLong nextGame, long games) {
+        Policy attackerPolicy = this.attacker.get(), defenderPolicy = this.defender.get();
+        Board start = new Board(new GameLogic()), board = new Board(start);
+        long[] counts = new long[PLIES + 1];
+        MoveList moves = new MoveList();
+
+        for (long game = nextGame.getAndIncrement(); game < games; game = nextGame.getAndIncrement()) {
+            SplittableRandom random = new SplittableRandom(this.seed + game);
+            board.copyFrom(start);
+
+            int plies = 0;
+            while (!board.isFinished() && plies < this.maxPlies) {
+                int move = (board.isAttackerTurn() ? attackerPolicy : defenderPolicy).selectMove(board, random);
+                if (move == SearchEngine.NO_MOVE) {
+                    break;
+                }
+
+                board.make(move);
+                plies++;
+            }
+
+            int result = board.isFinished() ? board.getResult() : Board.DRAW;
+            counts[result]++;
+            counts[PLIES] += plies;
+
+            if (this.archive != null) {
+                moves.clear();
+                for (int ply = 0; ply < plies; ply++) {
+                    moves.add(board.getMove(ply));
+                }
+                synchronized (this.archive) {
+                    this.archive.writeGame(result, moves);
+                }
+            }
+        }
+
+        return counts;
+    }
+
+    private static Supplier<Policy> parsePolicy(String name) {
+        if (name.equals("random")) {
+            return Policy::random;
+        } else if (name.equals("greedy")) {
+            return Policy::greedyCapture;
+        } else if (name.startsWith("search")) {
+            int depth = name.length() > "search".length() ? Integer.parseInt(name.substring("search".length())) : 2;
+            return () -> Policy.search(depth, 4);
+        }
+
+        throw new IllegalArgumentException("Unknown policy: " + name);
+    }
+
+    /**
+     * Usage: SelfPlay games attackerPolicy defenderPolicy [threads] [maxPlies] [seed] [archive],
+     * where a policy is random, greedy or searchN for a depth N search.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Usage: SelfPlay games attacker defender [threads] [maxPlies] [seed] [archive]");
+            System.err.println("Policies: random, greedy, searchN");
+            System.exit(1);
+        }
+
+        long games = Long.parseLong(args[0]);
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        int maxPlies = args.length > 4 ? Integer.parseInt(args[4]) : 500;
+        long seed = args.length > 5 ? Long.parseLong(args[5]) : 1;
+
+        SelfPlay selfPlay = new SelfPlay(parsePolicy(args[1]), parsePolicy(args[2]), maxPlies, threads, seed);
+        GameRecordWriter archive = args.length > 6 ? new GameRecordWriter(new FileOutputStream(args[6])) : null;
+        selfPlay.setArchive(archive);
+        Report report = selfPlay.run(games);
+        if (archive != null) {
+            archive.close();
+        }
+
+        System.out.printf("Games:          %,d on %d threads%n", report.games(), threads);
+        System.out.printf("Games/s:        %,.1f%n", report.gamesPerSecond());
+        System.out.printf("Average length: %.1f plies%n", report.averageLength());
+        System.out.printf("Attacker wins:  %.2f%%%n", 100 * report.attackerWinRate());
+        System.out.printf("Defender wins:  %.2f%%%n", 100 * report.defenderWinRate());
+        System.out.printf("Draws:          %.2f%%%n", 100.0 * report.draws() / Math.max(1, report.games()));
+    }
+}
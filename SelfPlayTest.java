@@ -0,0 +1,49 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SelfPlayTest {
+    @Test
+    void reportCountsEveryGame() {
+        SelfPlay.Report single = new SelfPlay(Policy::random, Policy::greedyCapture, 150, 1, 3).run(60);
+        assertEquals(60, single.games());
+        assertEquals(single.games(), single.attackerWins() + single.defenderWins() + single.draws());
+        assertTrue(single.plies() > 0 && single.plies() <= 150 * single.games());
+
+        // Game i always gets the same seed, so the thread count does not change the totals
+        SelfPlay.Report parallel = new SelfPlay(Policy::random, Policy::greedyCapture, 150, 4, 3).run(60);
+        assertEquals(single.attackerWins(), parallel.attackerWins());
+        assertEquals(single.defenderWins(), parallel.defenderWins());
+        assertEquals(single.draws(), parallel.draws());
+        assertEquals(single.plies(), parallel.plies());
+    }
+
+    @Test
+    void archivesEveryGame() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        SelfPlay selfPlay = new SelfPlay(Policy::random, Policy::random, 100, 3, 5);
+        SelfPlay.Report report;
+        try (GameRecordWriter archive = new GameRecordWriter(out)) {
+            selfPlay.setArchive(archive);
+            report = selfPlay.run(40);
+        }
+
+        long[] results = new long[Board.DRAW + 1];
+        long plies = 0;
+        try (GameRecordReader reader = new GameRecordReader(new ByteArrayInputStream(out.toByteArray()))) {
+            while (reader.next()) {
+                results[reader.getResult()]++;
+                plies += reader.getPlies();
+            }
+        }
+        assertEquals(report.attackerWins(), results[Board.ATTACKER_WON]);
+        assertEquals(report.defenderWins(), results[Board.DEFENDER_WON]);
+        assertEquals(report.draws(), results[Board.DRAW]);
+        assertEquals(0, results[Board.ONGOING]);
+        assertEquals(report.plies(), plies);
+    }
+}
@@ -0,0 +1,126 @@
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Load test of a {@link SessionManager}: worker threads play random legal moves on randomly chosen games
+ * while a sweeper hibernates the games left idle, then reports moves per second, latency percentiles
+ * and the heap taken by each game once every game is hibernated.
+ * Usage: SessionBenchmark [sessions] [threads] [seconds] [idleMillis]
+ */
+public class SessionBenchmark {
+    private static final int MAX_SAMPLES = 1 << 22;
+    private static final long SEED = 42;
+
+    public static void main(String[] args) throws InterruptedException {
+        int sessions = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        long idleMillis = args.length > 3 ? Long.parseLong(args[3]) : 200;
+
+        long baseline = usedHeap();
+        SessionManager manager = new SessionManager(idleMillis, Long.MAX_VALUE);
+        long[] ids = new long[sessions];
+        for (int i = 0; i < sessions; i++) {
+            ids[i] = manager.create();
+        }
+
+        run(manager, ids, threads, seconds, idleMillis);
+
+        // Wake every game, then let them all hibernate
+        for (long id : ids) {
+            manager.withGame(id, GameLogic::getPly);
+        }
+        long awake = usedHeap() - baseline;
+        Thread.sleep(idleMillis);
+        manager.sweep();
+        long hibernated = usedHeap() - baseline;
+        System.out.printf("Heap:     %,d bytes per awake game, %,d bytes per hibernated game%n", awake / sessions, hibernated / sessions);
+
+        // Keep the manager reachable until the heap is measured
+        if (manager.size() != sessions) {
+            System.out.println("Games lost");
+        }
+    }
+
+    private static void run(SessionManager manager, long[] ids, int threads, int seconds, long idleMillis) throws InterruptedException {
+        int sessions = ids.length;
+        long end = System.nanoTime() + seconds * 1_000_000_000L;
+        long[][] latencies = new long[threads][];
+        int[] counts = new int[threads];
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            new Thread(() -> {
+                SplittableRandom random = new SplittableRandom(SEED + thread);
+                long[] samples = new long[MAX_SAMPLES / threads];
+                int[] moves = new int[GameLogic.MAX_LEGAL_MOVES];
+                int count = 0;
+                while (count < samples.length && System.nanoTime() < end) {
+                    long id = ids[random.nextInt(sessions)];
+                    int choice = random.nextInt(GameLogic.MAX_LEGAL_MOVES);
+                    long start = System.nanoTime();
+                    manager.withGame(id, game -> play(game, moves, choice));
+                    samples[count++] = System.nanoTime() - start;
+                }
+                latencies[thread] = samples;
+                counts[thread] = count;
+                done.countDown();
+            }).start();
+        }
+
+        // Hibernate games the way a server would, while the workers play
+        long sweeps = 0, sweepNanos = 0;
+        while (done.getCount() > 0) {
+            long start = System.nanoTime();
+            manager.sweep();
+            sweepNanos += System.nanoTime() - start;
+            sweeps++;
+            Thread.sleep(Math.max(1, idleMillis / 4));
+        }
+        done.await();
+
+        int total = 0;
+        for (int count : counts) {
+            total += count;
+        }
+        long[] all = new long[total];
+        for (int t = 0, at = 0; t < threads; t++) {
+            System.arraycopy(latencies[t], 0, all, at, counts[t]);
+            at += counts[t];
+        }
+        Arrays.sort(all);
+
+        System.out.printf("Sessions: %,d, threads: %d, idle after %d ms%n", sessions, threads, idleMillis);
+        System.out.printf("Moves:    %,d in %d s, %,.0f moves/s%n", total, seconds, total / (double) seconds);
+        System.out.printf("Latency:  p50 %,d ns, p99 %,d ns, p99.9 %,d ns, max %,d ns%n",
+                percentile(all, 0.5), percentile(all, 0.99), percentile(all, 0.999), all[all.length - 1]);
+        System.out.printf("Sweep:    %,.0f us average over %,d sweeps%n", sweepNanos / 1e3 / sweeps, sweeps);
+    }
+
+    // Play one random legal move, starting a new game once this one is over
+    private static Boolean play(GameLogic game, int[] moves, int choice) {
+        int count = game.generateLegalMoves(moves);
+        if (count == 0) {
+            game.reset();
+            count = game.generateLegalMoves(moves);
+        }
+
+        int move = moves[choice % count];
+        return game.move(PackedMove.toPosition(PackedMove.from(move)), PackedMove.toPosition(PackedMove.to(move)));
+    }
+
+    private static long percentile(long[] sorted, double fraction) {
+        return sorted[(int) Math.min(sorted.length - 1, sorted.length * fraction)];
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        Runtime runtime = Runtime.getRuntime();
+
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
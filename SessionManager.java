@@ -0,0 +1,236 @@
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Hosts many games in one JVM, each under its own id.
+ * Every game has its own lock, so calls on one game run one at a time while unrelated games never wait on each other.
+ * A game left alone for the idle time is hibernated: its {@link GameLogic} is dropped and only the moves played and the
+ * wins are kept, a few bytes per ply. The next call replays the moves, which restores the position, kills and wins.
+ * Undone moves that could still be redone are lost by hibernating. A game left alone for the expiry time is removed.
+ * Hosted games report to a {@link NoOpReportSink}.
+ */
+public class SessionManager {
+    private final ConcurrentHashMap<Long, Session> sessions;
+    private final AtomicLong nextId;
+    private final long idleNanos, expiryNanos;
+    private boolean threefoldRepetition;
+    private int plyLimit;
+
+    /**
+     * @param idleMillis   Time without calls after which a game is hibernated by {@link #sweep()}.
+     * @param expiryMillis Time without calls after which a game is removed by {@link #sweep()}.
+     */
+    public SessionManager(long idleMillis, long expiryMillis) {
+        this.sessions = new ConcurrentHashMap<>();
+        this.nextId = new AtomicLong(1);
+        this.idleNanos = TimeUnit.MILLISECONDS.toNanos(idleMillis);
+        this.expiryNanos = TimeUnit.MILLISECONDS.toNanos(expiryMillis);
+    }
+
+    /**
+     * Draw rules of the games created from now on, see {@link GameLogic#setDrawRules(boolean, int)}.
+     */
+    public synchronized void setDrawRules(boolean threefoldRepetition, int plyLimit) {
+        this.threefoldRepetition = threefoldRepetition;
+        this.plyLimit = plyLimit;
+    }
+
+    /**
+     * Start a new game.
+     *
+     * @return The id of the game, never reused.
+     */
+    public long create() {
+        long id = this.nextId.getAndIncrement();
+        Session session;
+        synchronized (this) {
+            session = new Session(this.threefoldRepetition, this.plyLimit);
+        }
+        this.sessions.put(id, session);
+
+        return id;
+    }
+
+    public boolean contains(long id) {
+        return this.sessions.containsKey(id);
+    }
+
+    /**
+     * @return The number of games hosted, hibernated or not.
+     */
+    public int size() {
+        return this.sessions.size();
+    }
+
+    /**
+     * Run an action on a game while holding its lock, waking the game up if it was hibernated.
+     * The action must not keep the game, nor change its report sink, listeners or record writer, which hibernating drops.
+     *
+     * @throws NoSuchElementException If there is no game with this id, or it expired or was evicted.
+     */
+    public <T> T withGame(long id, Function<GameLogic, T> action) {
+        Session session = this.sessions.get(id);
+        if (session == null) {
+            throw new NoSuchElementException("No game " + id);
+        }
+
+        session.lock.lock();
+        try {
+            // Removed while this call was waiting for the lock
+            if (session.removed) {
+                throw new NoSuchElementException("No game " + id);
+            }
+
+            T result = action.apply(session.resume());
+            session.lastAccess = System.nanoTime();
+
+            return result;
+        } finally {
+            session.lock.unlock();
+        }
+    }
+
+    /**
+     * @see GameLogic#move(Position, Position)
+     */
+    public boolean move(long id, Position a, Position b) {
+        return this.withGame(id, game -> game.move(a, b));
+    }
+
+    /**
+     * @return A snapshot of the current position of the game.
+     */
+    public GameSnapshot snapshot(long id) {
+        return this.withGame(id, GameLogic::snapshot);
+    }
+
+    /**
+     * Remove a game at once, waiting for a call running on it to finish.
+     *
+     * @return False if there was no game with this id.
+     */
+    public boolean evict(long id) {
+        Session session = this.sessions.remove(id);
+        if (session == null) {
+            return false;
+        }
+
+        session.lock.lock();
+        try {
+            session.removed = true;
+            session.game = null;
+        } finally {
+            session.lock.unlock();
+        }
+
+        return true;
+    }
+
+    /**
+     * Hibernate idle games and remove expired ones. Meant to be called periodically from one thread.
+     * Games busy with a call are skipped until the next sweep, so sweeping never waits on a game.
+     *
+     * @return The number of games removed.
+     */
+    public int sweep() {
+        long now = System.nanoTime();
+        int expired = 0;
+        for (Map.Entry<Long, Session> entry : this.sessions.entrySet()) {
+            Session session = entry.getValue();
+            long idle = now - session.lastAccess;
+            if (idle < this.idleNanos && idle < this.expiryNanos) {
+                continue;
+            }
+            if (!session.lock.tryLock()) {
+                continue;
+            }
+
+            try {
+                // The game may have been used since it was checked
+                idle = now - session.lastAccess;
+                if (idle >= this.expiryNanos) {
+                    this.sessions.remove(entry.getKey(), session);
+                    session.removed = true;
+                    session.game = null;
+                    expired++;
+                } else if (idle >= this.idleNanos) {
+                    session.hibernate();
+                }
+            } finally {
+                session.lock.unlock();
+            }
+        }
+
+        return expired;
+    }
+
+    private static final class Session {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final boolean threefoldRepetition;
+        private final int plyLimit;
+        private volatile long lastAccess = System.nanoTime();
+        private boolean removed;
+
+        // The game while awake, otherwise the moves that reach its position and the wins so far
+        private GameLogic game;
+        private int[] moves;
+        private int player1Wins, player2Wins;
+
+        Session(boolean threefoldRepetition, int plyLimit) {
+            this.threefoldRepetition = threefoldRepetition;
+            this.plyLimit = plyLimit;
+        }
+
+        GameLogic resume() {
+            if (this.game != null) {
+                return this.game;
+            }
+
+            GameLogic game = new GameLogic();
+            game.setReportSink(NoOpReportSink.INSTANCE);
+            game.setDrawRules(this.threefoldRepetition, this.plyLimit);
+            if (this.moves != null) {
+                for (int move : this.moves) {
+                    game.move(PackedMove.toPosition(PackedMove.from(move)), PackedMove.toPosition(PackedMove.to(move)));
+                }
+            }
+
+            // Replaying a winning move counted the win again
+            setWins(game.getFirstPlayer(), this.player1Wins);
+            setWins(game.getSecondPlayer(), this.player2Wins);
+            this.game = game;
+            this.moves = null;
+
+            return game;
+        }
+
+        void hibernate() {
+            if (this.game == null) {
+                return;
+            }
+
+            int plies = this.game.getPly();
+            this.moves = plies == 0 ? null : new int[plies];
+            for (int ply = 0; ply < plies; ply++) {
+                this.moves[ply] = this.game.getMove(ply);
+            }
+            this.player1Wins = this.game.getFirstPlayer().getWins();
+            this.player2Wins = this.game.getSecondPlayer().getWins();
+            this.game = null;
+        }
+
+        private static void setWins(ConcretePlayer player, int wins) {
+            while (player.getWins() < wins) {
+                player.win();
+            }
+            while (player.getWins() > wins) {
+                player.undoWin();
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionManagerTest {
+    @Test
+    void createAndLookUpGames() {
+        SessionManager sessions = new SessionManager(60_000, 600_000);
+        long first = sessions.create(), second = sessions.create();
+        assertNotEquals(first, second);
+        assertTrue(sessions.contains(first));
+        assertEquals(2, sessions.size());
+
+        // Games are independent of each other
+        assertTrue(sessions.move(first, Position.of(3, 0), Position.of(3, 1)));
+        assertEquals(1, sessions.snapshot(first).getPly());
+        assertEquals(0, sessions.snapshot(second).getPly());
+        assertFalse(sessions.move(first, Position.of(3, 1), Position.of(3, 2)));
+
+        assertTrue(sessions.evict(first));
+        assertFalse(sessions.evict(first));
+        assertFalse(sessions.contains(first));
+        assertThrows(NoSuchElementException.class, () -> sessions.snapshot(first));
+        assertThrows(NoSuchElementException.class, () -> sessions.snapshot(second + 1));
+        assertEquals(1, sessions.size());
+    }
+
+    @Test
+    void hibernatedGameResumesWhereItWas() {
+        // Every sweep hibernates every game, none expires
+        SessionManager sessions = new SessionManager(0, Long.MAX_VALUE);
+        long id = sessions.create();
+
+        // A won game, then part of a second one with captures in it
+        Random random = new Random(1);
+        sessions.withGame(id, game -> TestGames.playRandomMoves(game, random, Integer.MAX_VALUE));
+        sessions.withGame(id, game -> {
+            game.reset();
+            return TestGames.playRandomMoves(game, random, 60);
+        });
+
+        GameLogic awake = sessions.withGame(id, game -> game);
+        List<String> state = sessions.withGame(id, TestGames::state);
+        assertEquals(0, sessions.sweep());
+        assertTrue(sessions.contains(id));
+
+        assertNotSame(awake, sessions.withGame(id, game -> game));
+        assertEquals(state, sessions.withGame(id, TestGames::state));
+        assertEquals(60, sessions.snapshot(id).getPly());
+    }
+
+    @Test
+    void sweepRemovesExpiredGames() {
+        SessionManager sessions = new SessionManager(0, 0);
+        long id = sessions.create();
+        assertEquals(1, sessions.sweep());
+        assertFalse(sessions.contains(id));
+        assertThrows(NoSuchElementException.class, () -> sessions.move(id, Position.of(3, 0), Position.of(3, 1)));
+    }
+}
@@ -0,0 +1,170 @@
+/**
+ * The 8 rotations and reflections of the board. The starting layout, the corners and the edges are all symmetric,
+ * so a position and its transforms have the same moves and outcome up to the transform.
+ * Transform bit 0 mirrors x, bit 1 mirrors y and bit 2 swaps x and y before mirroring.
+ */
+public final class Symmetry {
+    public static final int IDENTITY = 0;
+    public static final int COUNT = 8;
+
+    private static final int SIZE = GameLogic.BOARD_SIZE;
+    private static final int[][] SQUARES = new int[COUNT][Board.SQUARES];
+    private static final int[] INVERSE = new int[COUNT];
+
+    // Zobrist key of a piece on a square after each transform, the 8 transforms side by side so one lookup covers all of them
+    private static final long[] KEYS = new long[(Board.KING + 1) * Board.SQUARES * COUNT];
+
+    // Book probes run on many search threads at once, each fills its own hashes
+    private static final ThreadLocal<long[]> HASHES = ThreadLocal.withInitial(() -> new long[COUNT]);
+
+    static {
+        for (int transform = 0; transform < COUNT; transform++) {
+            for (int square = 0; square < Board.SQUARES; square++) {
+                int x = PackedMove.x(square), y = PackedMove.y(square);
+                if ((transform & 4) != 0) {
+                    int swap = x;
+                    x = y;
+                    y = swap;
+                }
+                if ((transform & 1) != 0) {
+                    x = SIZE - 1 - x;
+                }
+                if ((transform & 2) != 0) {
+                    y = SIZE - 1 - y;
+                }
+                SQUARES[transform][square] = PackedMove.square(x, y);
+                for (byte type = Board.ATTACKER; type <= Board.KING; type++) {
+                    KEYS[(type * Board.SQUARES + square) * COUNT + transform] = Zobrist.piece(type, PackedMove.square(x, y));
+                }
+            }
+        }
+
+        // The inverse maps every square back where it came from
+        for (int transform = 0; transform < COUNT; transform++) {
+            for (int inverse = 0; inverse < COUNT; inverse++) {
+                boolean undoes = true;
+                for (int square = 0; square < Board.SQUARES && undoes; square++) {
+                    undoes = SQUARES[inverse][SQUARES[transform][square]] == square;
+                }
+                if (undoes) {
+                    INVERSE[transform] = inverse;
+                }
+            }
+        }
+    }
+
+    private Symmetry() {}
+
+    public static int square(int transform, int square) {
+        return SQUARES[transform][square];
+    }
+
+    /**
+     * Transform a {@link PackedMove}. Captures and flags are dropped, since their directions would change.
+     */
+    public static int move(int transform, int move) {
+        return PackedMove.of(SQUARES[transform][PackedMove.from(move)], SQUARES[transform][PackedMove.to(move)]);
+    }
+
+    public static int inverse(int transform) {
+        return INVERSE[transform];
+    }
+
+    /**
+     * Compute the {@link Zobrist} hash the board would have after each transform, in one pass over its squares.
+     * Search never needs these, so the board does not keep them up to date.
+     *
+     * @param hashes Receives one hash per transform, the identity being {@link Board#getHash()}.
+     */
+    public static void hashes(Board board, long[] hashes) {
+        long turn = board.isAttackerTurn() ? Zobrist.attackerTurn() : 0;
+        for (int transform = 0; transform < COUNT; transform++) {
+            hashes[transform] = turn;
+        }
+
+        // The 8 keys of a piece and square sit next to each other, so each piece is one short run of memory
+        for (int square = 0; square < Board.SQUARES; square++) {
+            byte piece = board.pieceAt(square);
+            if (piece != Board.EMPTY) {
+                int keys = (piece * Board.SQUARES + square) * COUNT;
+                hashes[0] ^= KEYS[keys];
+                hashes[1] ^= KEYS[keys + 1];
+                hashes[2] ^= KEYS[keys + 2];
+                hashes[3] ^= KEYS[keys + 3];
+                hashes[4] ^= KEYS[keys + 4];
+                hashes[5] ^= KEYS[keys + 5];
+                hashes[6] ^= KEYS[keys + 6];
+                hashes[7] ^= KEYS[keys + 7];
+            }
+        }
+    }
+
+    /**
+     * Like {@link #hashes(Board, long[])}, filling a buffer of the calling thread instead of allocating one.
+     *
+     * @return The thread's buffer, overwritten by its next call to this or to the canonical methods taking a board.
+     */
+    public static long[] hashes(Board board) {
+        long[] hashes = HASHES.get();
+        hashes(board, hashes);
+
+        return hashes;
+    }
+
+    /**
+     * @return The transform giving the lowest hash, so every symmetric variant of a position picks the same representative.
+     */
+    public static int canonicalTransform(Board board) {
+        return canonicalTransform(hashes(board));
+    }
+
+    /**
+     * @param hashes As filled by {@link #hashes(Board, long[])}.
+     */
+    public static int canonicalTransform(long[] hashes) {
+        int best = IDENTITY;
+        for (int transform = 1; transform < COUNT; transform++) {
+            if (Long.compareUnsigned(hashes[transform], hashes[best]) < 0) {
+                best = transform;
+            }
+        }
+
+        return best;
+    }
+
+    /**
+     * @return The hash of the canonical representative of the position.
+     */
+    public static long canonicalHash(Board board) {
+        long[] hashes = hashes(board);
+
+        return hashes[canonicalTransform(hashes)];
+    }
+
+    /**
+     * @param hashes As filled by {@link #hashes(Board, long[])}.
+     * @return One bit per transform that maps the position onto its canonical representative.
+     *         More than one bit is set when the position is itself symmetric, as the starting layout is.
+     */
+    public static int canonicalTransforms(long[] hashes) {
+        long canonical = hashes[canonicalTransform(hashes)];
+        int transforms = 0;
+        for (int transform = 0; transform < COUNT; transform++) {
+            if (hashes[transform] == canonical) {
+                transforms |= 1 << transform;
+            }
+        }
+
+        return transforms;
+    }
+
+    /**
+     * Write the pieces of the board after applying the transform, one {@link Board} piece type per square.
+     * With the {@link #canonicalTransform(Board) canonical transform} this is the canonical representative of the position.
+     */
+    public static void apply(Board board, int transform, byte[] squares) {
+        for (int square = 0; square < Board.SQUARES; square++) {
+            squares[SQUARES[transform][square]] = board.pieceAt(square);
+        }
+    }
+}
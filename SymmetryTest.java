@@ -0,0 +1,61 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SymmetryTest {
+    @Test
+    void startingPositionIsSymmetric() {
+        Board board = new Board(new GameLogic());
+        long[] hashes = new long[Symmetry.COUNT];
+        Symmetry.hashes(board, hashes);
+
+        for (int transform = 0; transform < Symmetry.COUNT; transform++) {
+            assertEquals(board.getHash(), hashes[transform]);
+        }
+        assertEquals((1 << Symmetry.COUNT) - 1, Symmetry.canonicalTransforms(hashes));
+
+        // The board overloads reuse one buffer per thread
+        assertArrayEquals(hashes, Symmetry.hashes(board));
+        assertSame(Symmetry.hashes(board), Symmetry.hashes(board));
+    }
+
+    @Test
+    void hashesMatchTransformedBoards() {
+        Board start = new Board(new GameLogic());
+        Board board = new Board(start);
+        Random random = new Random(1);
+        long[] hashes = new long[Symmetry.COUNT];
+        byte[] squares = new byte[Board.SQUARES];
+
+        while (!board.isFinished() && board.getPlies() < 200) {
+            TestGames.playRandomMoves(board, random, 1);
+            Symmetry.hashes(board, hashes);
+            assertEquals(board.getHash(), hashes[Symmetry.IDENTITY]);
+
+            // The starting position is symmetric, so transforming every move reaches the transformed position
+            for (int transform = 0; transform < Symmetry.COUNT; transform++) {
+                Board transformed = new Board(start);
+                for (int ply = 0; ply < board.getPlies(); ply++) {
+                    transformed.make(Symmetry.move(transform, board.getMove(ply)));
+                }
+                for (int square = 0; square < Board.SQUARES; square++) {
+                    assertEquals(board.pieceAt(square), transformed.pieceAt(Symmetry.square(transform, square)));
+                }
+                assertEquals(transformed.getHash(), hashes[transform], "transform " + transform + " at ply " + board.getPlies());
+                assertEquals(Symmetry.canonicalHash(board), Symmetry.canonicalHash(transformed));
+            }
+
+            // The canonical representative hashes to the canonical hash
+            Symmetry.apply(board, Symmetry.canonicalTransform(board), squares);
+            long canonical = board.isAttackerTurn() ? Zobrist.attackerTurn() : 0;
+            for (int square = 0; square < Board.SQUARES; square++) {
+                if (squares[square] != Board.EMPTY) {
+                    canonical ^= Zobrist.piece(squares[square], square);
+                }
+            }
+            assertEquals(Symmetry.canonicalHash(board), canonical);
+        }
+    }
+}
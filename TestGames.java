@@ -0,0 +1,86 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Games the tests share, random ones playing the same moves for the same seed
+final class TestGames {
+    private TestGames() {
+    }
+
+    // A game that does not print a report when it ends
+    static GameLogic quietGame() {
+        GameLogic game = new GameLogic();
+        game.setReportSink(NoOpReportSink.INSTANCE);
+        return game;
+    }
+
+    // Play random legal moves until the game ends or the plies run out
+    static GameLogic playRandomMoves(GameLogic game, Random random, int plies) {
+        int[] moves = new int[GameLogic.MAX_LEGAL_MOVES];
+        for (int ply = 0; ply < plies && !game.isGameFinished(); ply++) {
+            int move = moves[random.nextInt(game.generateLegalMoves(moves))];
+            assertTrue(game.move(PackedMove.toPosition(PackedMove.from(move)), PackedMove.toPosition(PackedMove.to(move))));
+        }
+
+        return game;
+    }
+
+    /**
+     * Make random legal moves on the board until it ends or the plies run out.
+     *
+     * @return The moves made, without their capture bits.
+     */
+    static MoveList playRandomMoves(Board board, Random random, int plies) {
+        MoveList game = new MoveList();
+        int[] moves = new int[GameLogic.MAX_LEGAL_MOVES];
+        while (!board.isFinished() && game.size() < plies) {
+            int move = moves[random.nextInt(board.generateMoves(moves))] & PackedMove.MOVE_MASK;
+            board.make(move);
+            game.add(move);
+        }
+
+        return game;
+    }
+
+    /**
+     * A position drawn one row per string, y = 0 first: A for an attacker, D for a defender, K for the king and . for an empty square.
+     */
+    static Board position(boolean attackerTurn, String... rows) {
+        byte[] squares = new byte[Board.SQUARES];
+        for (int y = 0; y < rows.length; y++) {
+            for (int x = 0; x < rows[y].length(); x++) {
+                squares[PackedMove.square(x, y)] = (byte) ".ADK".indexOf(rows[y].charAt(x));
+            }
+        }
+
+        return new Board(new GameSnapshot(squares, attackerTurn, false, false, 0, 0));
+    }
+
+    static int[] moves(GameLogic game) {
+        int[] moves = new int[game.getPly()];
+        for (int ply = 0; ply < moves.length; ply++) {
+            moves[ply] = game.getMove(ply);
+        }
+
+        return moves;
+    }
+
+    // Everything undo, redo and hibernating have to restore, the game first and then every piece on the board with its statistics
+    static List<String> state(GameLogic game) {
+        List<String> state = new ArrayList<>();
+        state.add(game.getHash() + " " + game.isSecondPlayerTurn() + " " + game.isGameFinished() + " " + game.isDraw()
+                + " " + game.getFirstPlayer().getWins() + " " + game.getSecondPlayer().getWins());
+        for (int x = 0; x < game.getBoardSize(); x++) {
+            for (int y = 0; y < game.getBoardSize(); y++) {
+                ConcretePiece piece = game.getPieceAtPosition(Position.of(x, y));
+                if (piece != null) {
+                    state.add(piece + " " + piece.getPosition() + " " + piece.getKills() + " " + piece.distanceTravelled() + " " + piece.getUniqueSquares());
+                }
+            }
+        }
+
+        return state;
+    }
+}
@@ -0,0 +1,104 @@
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * Formats the end of game report as text: the move history of both players, kills, distances travelled and
+ * squares visited by several pieces, each section followed by a row of stars.
+ * The whole report is built first and handed to {@link #write(CharSequence)} in one piece.
+ */
+public abstract class TextReportSink implements GameReportSink {
+    private static final String NEW_LINE = System.lineSeparator();
+
+    protected abstract void write(CharSequence report);
+
+    @Override
+    public void gameFinished(List<Move> winnerMoves, List<Move> loserMoves, List<ConcretePiece> pieces, int[] piecesPerSquare) {
+        StringBuilder out = new StringBuilder();
+
+        printMoveHistory(out, winnerMoves);
+        printMoveHistory(out, loserMoves);
+        printStars(out);
+
+        printKills(out, pieces);
+        printStars(out);
+
+        printDistances(out, pieces);
+        printStars(out);
+
+        printStepsPerSquare(out, piecesPerSquare);
+        printStars(out);
+
+        this.write(out);
+    }
+
+    private static void printMoveHistory(StringBuilder out, List<Move> moves) {
+        // Create map between piece -> moves
+        HashMap<ConcretePiece, ArrayList<Move>> movesPerPiece = new HashMap<>();
+        for (Move move : moves) {
+            movesPerPiece.computeIfAbsent(move.target(), k -> new ArrayList<>()).add(move);
+        }
+
+        movesPerPiece.entrySet().stream()
+                // Sort map values by move list length and keys by ID in ascending order
+                .sorted(Comparator.comparingInt((Map.Entry<ConcretePiece, ArrayList<Move>> o) -> o.getValue().size()).thenComparingInt(o -> o.getKey().getId()))
+                // Print data
+                .forEach(entry -> {
+                    out.append(entry.getKey()).append(": [");
+                    ArrayList<Move> pieceMoves = entry.getValue();
+                    for (Move move : pieceMoves) {
+                        out.append(move.oldPosition());
+                        out.append(", ");
+                    }
+                    out.append(entry.getKey().getPosition());
+                    out.append("]\n");
+                });
+    }
+
+    private static void printKills(StringBuilder out, List<ConcretePiece> pieces) {
+        pieces.stream()
+                // Sort by kills
+                .sorted(Comparator.comparingInt(ConcretePiece::getKills)
+                        // Sort by ID in ascending order
+                        .thenComparingInt(ConcretePiece::getId))
+                // Remove zeroes
+                .filter(piece -> piece.getKills() != 0)
+                // Print data
+                .forEach(piece -> out.append(piece).append(": ").append(piece.getKills()).append(" kills").append(NEW_LINE));
+    }
+
+    private static void printDistances(StringBuilder out, List<ConcretePiece> pieces) {
+        pieces.stream()
+                // Sort by distance travelled
+                .sorted(Comparator.comparingInt(ConcretePiece::distanceTravelled)
+                        // Descending order
+                        .reversed()
+                        // Sort by ID in ascending order
+                        .thenComparingInt(ConcretePiece::getId)).filter(piece -> piece.distanceTravelled() != 0)
+                // Print
+                .forEach(piece -> out.append(piece).append(": ").append(piece.distanceTravelled()).append(" squares").append(NEW_LINE));
+    }
+
+    private static void printStepsPerSquare(StringBuilder out, int[] piecesPerSquare) {
+        IntStream.range(0, piecesPerSquare.length)
+                // 2 and above
+                .filter(square -> piecesPerSquare[square] >= 2)
+                .boxed()
+                // Sort by number of unique pieces
+                .sorted(Comparator.comparingInt((Integer square) -> piecesPerSquare[square])
+                        // In descending order
+                        .reversed()
+                        // Sort by x value
+                        .thenComparingInt(PackedMove::x)
+                        // Sort by y value
+                        .thenComparingInt(PackedMove::y))
+                // Print
+                .forEach(square -> out.append(PackedMove.toPosition(square)).append(piecesPerSquare[square]).append(" pieces").append(NEW_LINE));
+    }
+
+    private static void printStars(StringBuilder out) {
+        for (int i = 1; i <= 75; i++) {
+            out.append('*');
+        }
+        out.append(NEW_LINE);
+    }
+}
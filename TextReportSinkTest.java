@@ -0,0 +1,160 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.StringWriter;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TextReportSinkTest {
+    // Two games and the reports the original GameLogic printed for them, before reports moved to sinks
+    private static final String ATTACKER_WIN = """
+            (3, 0) -> (2, 0), (5, 3) -> (9, 3), (9, 5) -> (9, 9), (9, 3) -> (9, 4)
+            (5, 1) -> (6, 1), (9, 4) -> (9, 5), (10, 7) -> (6, 7), (9, 5) -> (9, 6)
+            (0, 7) -> (4, 7), (4, 4) -> (4, 1), (6, 7) -> (8, 7), (4, 1) -> (5, 1)
+            (8, 7) -> (8, 9), (7, 5) -> (7, 1), (2, 0) -> (5, 0), (5, 1) -> (6, 1)
+            (3, 10) -> (3, 6), (6, 1) -> (5, 1), (0, 4) -> (3, 4), (7, 1) -> (7, 9)
+            (5, 9) -> (6, 9), (5, 6) -> (5, 9), (4, 7) -> (4, 9), (5, 5) -> (5, 10)
+            (4, 9) -> (5, 9)
+            """;
+    private static final String ATTACKER_WIN_REPORT = """
+            A6: [(5, 1), (6, 1)]
+            A9: [(0, 4), (3, 4)]
+            A13: [(9, 5), (9, 9)]
+            A19: [(5, 9), (6, 9)]
+            A20: [(3, 10), (3, 6)]
+            A1: [(3, 0), (2, 0), (5, 0)]
+            A17: [(0, 7), (4, 7), (4, 9), (5, 9)]
+            A18: [(10, 7), (6, 7), (8, 7), (8, 9)]
+            K7: [(5, 5), (5, 10)]
+            D11: [(5, 6), (5, 9)]
+            D9: [(7, 5), (7, 1), (7, 9)]
+            D1: [(5, 3), (9, 3), (9, 4), (9, 5), (9, 6)]
+            D2: [(4, 4), (4, 1), (5, 1), (6, 1), (5, 1)]
+            ***************************************************************************
+            A9: 1 kills
+            A19: 1 kills
+            A17: 2 kills
+            D1: 4 kills
+            D2: 4 kills
+            ***************************************************************************
+            A18: 8 squares
+            D1: 7 squares
+            A17: 7 squares
+            D2: 6 squares
+            K7: 5 squares
+            A13: 4 squares
+            A20: 4 squares
+            A9: 3 squares
+            A19: 1 squares
+            ***************************************************************************
+            (5, 9)3 pieces
+            (5, 0)2 pieces
+            (5, 1)2 pieces
+            (5, 10)2 pieces
+            (6, 1)2 pieces
+            (9, 5)2 pieces
+            ***************************************************************************
+            """;
+    private static final String DEFENDER_WIN = """
+            (3, 0) -> (2, 0), (5, 3) -> (9, 3), (1, 5) -> (1, 4), (9, 3) -> (9, 4)
+            (0, 3) -> (9, 3), (4, 4) -> (4, 1), (6, 10) -> (6, 7), (6, 4) -> (6, 1)
+            (0, 7) -> (4, 7), (4, 1) -> (5, 1), (2, 0) -> (2, 5), (6, 1) -> (7, 1)
+            (4, 10) -> (4, 8), (3, 5) -> (3, 9), (4, 8) -> (4, 9), (7, 5) -> (7, 9)
+            (2, 5) -> (2, 9), (4, 5) -> (1, 5), (0, 6) -> (1, 6), (6, 6) -> (9, 6)
+            (10, 7) -> (9, 7), (5, 5) -> (0, 5), (2, 9) -> (2, 8), (0, 5) -> (0, 10)
+            """;
+    private static final String DEFENDER_WIN_REPORT = """
+            D5: [(3, 5), (3, 9)]
+            D6: [(4, 5), (1, 5)]
+            K7: [(5, 5), (0, 10)]
+            D9: [(7, 5), (7, 9)]
+            D12: [(6, 6), (9, 6)]
+            D1: [(5, 3), (9, 3), (9, 4)]
+            D2: [(4, 4), (4, 1), (5, 1)]
+            D4: [(6, 4), (6, 1), (7, 1)]
+            A7: [(0, 3), (9, 3)]
+            A12: [(1, 5), (1, 4)]
+            A15: [(0, 6), (1, 6)]
+            A17: [(0, 7), (4, 7)]
+            A18: [(10, 7), (9, 7)]
+            A23: [(6, 10), (6, 7)]
+            A21: [(4, 10), (4, 8), (4, 9)]
+            A1: [(3, 0), (2, 0), (2, 5), (2, 9), (2, 8)]
+            ***************************************************************************
+            A1: 1 kills
+            A7: 1 kills
+            D9: 1 kills
+            A15: 1 kills
+            A17: 1 kills
+            A18: 1 kills
+            D2: 2 kills
+            D4: 3 kills
+            ***************************************************************************
+            A1: 11 squares
+            A7: 9 squares
+            K7: 5 squares
+            D2: 4 squares
+            D4: 4 squares
+            D9: 4 squares
+            A17: 4 squares
+            A21: 3 squares
+            A23: 3 squares
+            A12: 1 squares
+            A15: 1 squares
+            A18: 1 squares
+            ***************************************************************************
+            (0, 5)2 pieces
+            (1, 5)2 pieces
+            (5, 1)2 pieces
+            (9, 3)2 pieces
+            ***************************************************************************
+            """;
+
+    private final PrintStream out = System.out;
+
+    @AfterEach
+    void restoreOut() {
+        System.setOut(this.out);
+    }
+
+    @Test
+    void consoleReportMatchesTheOriginal() {
+        assertEquals(report(ATTACKER_WIN_REPORT), printed(ATTACKER_WIN));
+        assertEquals(report(DEFENDER_WIN_REPORT), printed(DEFENDER_WIN));
+    }
+
+    @Test
+    void writerReportMatchesTheConsole() {
+        for (String moves : List.of(ATTACKER_WIN, DEFENDER_WIN)) {
+            StringWriter writer = new StringWriter();
+            GameLogic game = new GameLogic();
+            game.setReportSink(new WriterReportSink(writer));
+            play(game, moves);
+            assertEquals(printed(moves), writer.toString());
+        }
+    }
+
+    // What the game prints to System.out, byte for byte
+    private static String printed(String moves) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(bytes, true));
+        play(new GameLogic(), moves);
+        return bytes.toString();
+    }
+
+    private static void play(GameLogic game, String moves) {
+        List<Position> positions = GameLogicTest.parse(moves);
+        for (int i = 0; i < positions.size(); i += 2) {
+            assertTrue(game.move(positions.get(i), positions.get(i + 1)));
+        }
+        assertTrue(game.isGameFinished());
+    }
+
+    // The move histories ended their lines with \n, every other line came from println
+    private static String report(String lines) {
+        return lines.replaceAll("(?<!])\n", System.lineSeparator());
+    }
+}
@@ -0,0 +1,107 @@
+import java.util.Arrays;
+
+/**
+ * Fixed-size hash table of search results keyed by {@link Zobrist} hashes.
+ * Each entry is two longs, the key xor-ed with the data and the data itself, so threads can share the table
+ * without locks: an entry torn by a concurrent write no longer matches its key and reads as a miss.
+ * On collisions the entry searched to the greater depth is kept, unless it is left over from an older search.
+ */
+public class TranspositionTable {
+    public static final long MISS = 0;
+    public static final int EXACT = 1;
+    public static final int LOWER_BOUND = 2;
+    public static final int UPPER_BOUND = 3;
+
+    private static final int ENTRY_BYTES = 2 * Long.BYTES;
+    private static final int DEPTH_SHIFT = 16;
+    private static final int BOUND_SHIFT = 24;
+    private static final int GENERATION_SHIFT = 26;
+    private static final int GENERATION_MASK = 0x3F;
+
+    private final long[] entries;
+    private final int mask;
+    private int generation;
+
+    /**
+     * @param megabytes Memory to use, rounded down to a power of two number of entries.
+     */
+    public TranspositionTable(int megabytes) {
+        long capacity = Long.highestOneBit(Math.max(1L, (long) megabytes * 1024 * 1024 / ENTRY_BYTES));
+        if (capacity > Integer.MAX_VALUE / 2) {
+            throw new IllegalArgumentException("Table too large: " + megabytes + " MB");
+        }
+
+        this.entries = new long[(int) capacity * 2];
+        this.mask = (int) capacity - 1;
+    }
+
+    public int capacity() {
+        return this.mask + 1;
+    }
+
+    public long sizeInBytes() {
+        return (long) this.entries.length * Long.BYTES;
+    }
+
+    /**
+     * Mark the start of a new search so entries of previous searches get replaced first.
+     */
+    public void newSearch() {
+        this.generation = (this.generation + 1) & GENERATION_MASK;
+    }
+
+    public void clear() {
+        Arrays.fill(this.entries, 0);
+    }
+
+    /**
+     * @return The entry stored for this hash, or {@link #MISS}.
+     */
+    public long probe(long hash) {
+        int index = ((int) hash & this.mask) << 1;
+        long data = this.entries[index + 1];
+        if ((this.entries[index] ^ data) != hash) {
+            return MISS;
+        }
+
+        return data;
+    }
+
+    public void store(long hash, int move, int score, int depth, int bound) {
+        int index = ((int) hash & this.mask) << 1;
+        long old = this.entries[index + 1];
+
+        // Depth preferred, but anything from an older search can go
+        if (old != MISS && depth(old) > depth && generation(old) == this.generation) {
+            return;
+        }
+
+        long data = (move & 0xFFFFL)
+                | ((long) depth << DEPTH_SHIFT)
+                | ((long) bound << BOUND_SHIFT)
+                | ((long) this.generation << GENERATION_SHIFT)
+                | ((long) score << 32);
+        this.entries[index] = hash ^ data;
+        this.entries[index + 1] = data;
+    }
+
+    public static int move(long entry) {
+        return (int) (entry & 0xFFFF);
+    }
+
+    public static int depth(long entry) {
+        return (int) (entry >>> DEPTH_SHIFT) & 0xFF;
+    }
+
+    public static int bound(long entry) {
+        return (int) (entry >>> BOUND_SHIFT) & 0x3;
+    }
+
+    public static int score(long entry) {
+        return (int) (entry >>> 32);
+    }
+
+    private static int generation(long entry) {
+        return (int) (entry >>> GENERATION_SHIFT) & GENERATION_MASK;
+    }
+}
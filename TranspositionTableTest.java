@@ -0,0 +1,63 @@
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TranspositionTableTest {
+    private static final long HASH = 0x123456789ABCDEFL;
+
+    // Same slot, different key: the slot is chosen by the low bits only
+    private static final long COLLIDING_HASH = HASH ^ 1L << 48;
+
+    @Test
+    void storesAndProbes() {
+        TranspositionTable table = new TranspositionTable(1);
+        assertEquals(1 << 16, table.capacity());
+        assertEquals(TranspositionTable.MISS, table.probe(HASH));
+
+        int move = PackedMove.of(PackedMove.square(3, 0), PackedMove.square(3, 4));
+        table.store(HASH, move, -SearchEngine.WIN_SCORE + 7, 12, TranspositionTable.UPPER_BOUND);
+        long entry = table.probe(HASH);
+        assertEquals(move, TranspositionTable.move(entry));
+        assertEquals(-SearchEngine.WIN_SCORE + 7, TranspositionTable.score(entry));
+        assertEquals(12, TranspositionTable.depth(entry));
+        assertEquals(TranspositionTable.UPPER_BOUND, TranspositionTable.bound(entry));
+
+        table.clear();
+        assertEquals(TranspositionTable.MISS, table.probe(HASH));
+    }
+
+    @Test
+    void collidingKeyMisses() {
+        TranspositionTable table = new TranspositionTable(1);
+        table.store(HASH, 1, 10, 4, TranspositionTable.EXACT);
+        assertEquals(TranspositionTable.MISS, table.probe(COLLIDING_HASH));
+
+        // The colliding position takes the slot over once it is searched at least as deep
+        table.store(COLLIDING_HASH, 2, 20, 4, TranspositionTable.LOWER_BOUND);
+        assertEquals(TranspositionTable.MISS, table.probe(HASH));
+        assertEquals(2, TranspositionTable.move(table.probe(COLLIDING_HASH)));
+    }
+
+    @Test
+    void keepsTheDeeperEntryOfTheSameSearch() {
+        TranspositionTable table = new TranspositionTable(1);
+        table.store(HASH, 1, 10, 6, TranspositionTable.EXACT);
+        table.store(COLLIDING_HASH, 2, 20, 5, TranspositionTable.EXACT);
+        assertEquals(1, TranspositionTable.move(table.probe(HASH)));
+        assertEquals(TranspositionTable.MISS, table.probe(COLLIDING_HASH));
+
+        // Equal depth replaces, so the same position gets its latest result
+        table.store(HASH, 3, 30, 6, TranspositionTable.EXACT);
+        assertEquals(3, TranspositionTable.move(table.probe(HASH)));
+    }
+
+    @Test
+    void replacesEntriesOfAnOlderSearch() {
+        TranspositionTable table = new TranspositionTable(1);
+        table.store(HASH, 1, 10, 6, TranspositionTable.EXACT);
+        table.newSearch();
+        table.store(COLLIDING_HASH, 2, 20, 1, TranspositionTable.EXACT);
+        assertEquals(TranspositionTable.MISS, table.probe(HASH));
+        assertEquals(1, TranspositionTable.depth(table.probe(COLLIDING_HASH)));
+    }
+}
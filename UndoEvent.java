@@ -0,0 +1,16 @@
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for every move taken back on a {@link GameLogic} with {@link GameMetrics} set.
+ */
+@Name("tafl.Undo")
+@Label("Undo")
+@Category("Tafl")
+@StackTrace(false)
+public final class UndoEvent extends jdk.jfr.Event {
+    @Label("Ply")
+    int ply;
+}
@@ -0,0 +1,25 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+/**
+ * Appends game reports to a buffered writer, flushing after each report.
+ */
+public class WriterReportSink extends TextReportSink {
+    private final Writer writer;
+
+    public WriterReportSink(Writer writer) {
+        this.writer = writer instanceof BufferedWriter ? writer : new BufferedWriter(writer);
+    }
+
+    @Override
+    protected void write(CharSequence report) {
+        try {
+            this.writer.append(report);
+            this.writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write game report", e);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+import java.util.SplittableRandom;
+
+/**
+ * Zobrist keys for hashing positions: one random key per piece type and square, and one for the attacker to move.
+ * The keys come from a fixed seed so hashes are stable between runs and can be stored.
+ */
+public final class Zobrist {
+    private static final long SEED = 0x5EED_CAFE_F00DL;
+    private static final long[][] PIECE_KEYS = new long[Board.KING + 1][Board.SQUARES];
+    private static final long ATTACKER_TURN_KEY;
+
+    static {
+        SplittableRandom random = new SplittableRandom(SEED);
+        for (int type = Board.ATTACKER; type <= Board.KING; type++) {
+            for (int square = 0; square < Board.SQUARES; square++) {
+                PIECE_KEYS[type][square] = random.nextLong();
+            }
+        }
+        ATTACKER_TURN_KEY = random.nextLong();
+    }
+
+    private Zobrist() {}
+
+    public static long piece(byte type, int square) {
+        return PIECE_KEYS[type][square];
+    }
+
+    public static long attackerTurn() {
+        return ATTACKER_TURN_KEY;
+    }
+}
@@ -0,0 +1,97 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks for the GameLogic hot paths. Run main() to get a JSON baseline with allocation rates
+ * from the GC profiler, and compare it against the previous run before merging performance changes.
+ * The game is reached through {@link GameLogicDriver}. Compile this package together with the game sources,
+ * with jmh-core and the JMH annotation processor on the class path, then run {@code java benchmarks.GameLogicBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GameLogicBenchmark {
+    private GameLogicDriver driver;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.driver = GameLogicDriver.load();
+    }
+
+    @Benchmark
+    public boolean legalMoveAndUndo() {
+        return this.driver.legalMoveAndUndo();
+    }
+
+    @Benchmark
+    public int illegalMoves() {
+        return this.driver.illegalMoves();
+    }
+
+    @Benchmark
+    public boolean captureMoveAndUndo() {
+        return this.driver.captureMoveAndUndo();
+    }
+
+    @Benchmark
+    public int getPieceAtPosition() {
+        return this.driver.getPieceAtPosition();
+    }
+
+    @Benchmark
+    public void reset() {
+        this.driver.reset();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int replayGames() {
+        return this.driver.replayGames();
+    }
+
+    /**
+     * Undo on its own, the move it takes back is replayed outside of the measurement.
+     */
+    @State(Scope.Thread)
+    public static class MovedState {
+        private GameLogicDriver driver;
+
+        @Setup(Level.Trial)
+        public void load() {
+            this.driver = GameLogicDriver.load();
+        }
+
+        @Setup(Level.Invocation)
+        public void move() {
+            this.driver.moveForUndo();
+        }
+    }
+
+    @Benchmark
+    public void undoLastMove(MovedState state) {
+        state.driver.undoLastMove();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(GameLogicBenchmark.class.getName())
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result("jmh-result.json")
+                .build();
+
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,59 @@
+package benchmarks;
+
+/**
+ * The {@link GameLogicBenchmark} operations on a GameLogic. The game classes are in the unnamed package, which no named
+ * package can import, and JMH only accepts benchmarks in a named package. So the benchmark works through this interface
+ * and loads its implementation, GameLogicBenchmarkDriver, by name.
+ * Every operation returns something derived from what it read, so the JIT cannot discard the work.
+ */
+public interface GameLogicDriver {
+    String IMPLEMENTATION = "GameLogicBenchmarkDriver";
+
+    static GameLogicDriver load() {
+        try {
+            return (GameLogicDriver) Class.forName(IMPLEMENTATION).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not load " + IMPLEMENTATION + ", it must be on the class path with the game", e);
+        }
+    }
+
+    /**
+     * A legal attacker move followed by its undo.
+     */
+    boolean legalMoveAndUndo();
+
+    /**
+     * Diagonal, blocked path, wrong turn and empty square.
+     *
+     * @return One bit per accepted move, always 0.
+     */
+    int illegalMoves();
+
+    /**
+     * A move capturing a defender, followed by its undo.
+     */
+    boolean captureMoveAndUndo();
+
+    /**
+     * The lookups of one GUI repaint.
+     *
+     * @return The number of pieces found.
+     */
+    int getPieceAtPosition();
+
+    void reset();
+
+    /**
+     * Replay every generated game on a new GameLogic.
+     *
+     * @return The number of moves accepted.
+     */
+    int replayGames();
+
+    /**
+     * Play the move {@link #undoLastMove()} takes back.
+     */
+    void moveForUndo();
+
+    void undoLastMove();
+}